@@ -0,0 +1,54 @@
+package com.ecobazaar.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation per {@link FactorTableCarbonEstimator#estimate} with the shipped factor
+ * tables, cycling through eco ratings 0.0-10.0 and prices 0.00-150.00. Run with {@code -prof gc}
+ * (the profile default) to see bytes allocated per estimate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarbonEstimatorBenchmark {
+
+    private CarbonEstimator estimator;
+    private final BigDecimal[] ratings = new BigDecimal[101];
+    private final BigDecimal[] prices = new BigDecimal[101];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        FactorTableCarbonEstimator tables = new FactorTableCarbonEstimator();
+        ReflectionTestUtils.setField(tables, "location", new ClassPathResource("carbon-factors.properties"));
+        tables.reload();
+        estimator = tables;
+        for (int i = 0; i <= 100; i++) {
+            ratings[i] = BigDecimal.valueOf(i, 1);
+            prices[i] = BigDecimal.valueOf(i * 150L, 2);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal estimate() {
+        int i = next = (next + 1) % 101;
+        return estimator.estimate(ratings[i], prices[(i * 7) % 101]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.EcoBazaarApplication;
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.ProductRepository;
+import com.ecobazaar.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of reading one seller's 100k products: as DTO projections (the
+ * current path) against managed entities copied to DTOs (the path it replaced). Starts the
+ * application against an embedded PostgreSQL once per fork and seeds the rows once. Run with
+ * {@code -prof gc} (the profile default) to see bytes allocated per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductProjectionBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long sellerId;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // Passed as arguments so they take precedence over application.properties
+        context = new SpringApplicationBuilder(EcoBazaarApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--app.scheduling.enabled=false");
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        User seller = new User("benchmark-seller", "benchmark-seller@example.com", "not-a-real-hash");
+        seller.setRole(User.Role.SELLER);
+        sellerId = context.getBean(UserRepository.class).save(seller).getId();
+        context.getBean(JdbcTemplate.class).update("INSERT INTO products (name, description, price, quantity, "
+                + "eco_rating, status, seller_id, carbon_footprint, carbon_footprint_estimated, created_at, updated_at) "
+                + "SELECT 'Product ' || g, 'projection benchmark', 9.99, 10, 5.0, 'PENDING', ?, 1.50, false, now(), now() "
+                + "FROM generate_series(1, ?) g", sellerId, PRODUCTS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> projected() {
+        return productService.getProductsBySeller(sellerId);
+    }
+
+    @Benchmark
+    public List<ProductDTO> entities() {
+        return transactionTemplate.execute(status -> productRepository.findBySellerId(sellerId).stream()
+                .map(ProductService::convertToDTO)
+                .toList());
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecobazaar.util;
+
+import com.ecobazaar.dto.AuthenticatedUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link JwtUtil#verify} for a token already in the cache against one that has to be
+ * parsed and have its signature checked. The uncached case uses a cache of one entry and
+ * alternates between two tokens, so every call misses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+    private String[] alternating;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = JwtUtilFixture.newJwtUtil();
+        token = cached.generateToken(1L, "buyer", "BUYER", 0);
+        cached.verify(token);
+
+        uncached = JwtUtilFixture.newJwtUtil(900_000L, 1);
+        alternating = new String[]{
+                uncached.generateToken(1L, "buyer", "BUYER", 0),
+                uncached.generateToken(2L, "seller", "SELLER", 0)
+        };
+    }
+
+    @Benchmark
+    public AuthenticatedUser cachedVerify() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser parsedVerify() {
+        next ^= 1;
+        return uncached.verify(alternating[next]);
+    }
+}
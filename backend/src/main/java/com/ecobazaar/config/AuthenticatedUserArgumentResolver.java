@@ -0,0 +1,48 @@
+package com.ecobazaar.config;
+
+import com.ecobazaar.dto.AuthenticatedUser;
+import com.ecobazaar.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Injects the {@link AuthenticatedUser} built by the JWT filter into controller methods,
+ * so handlers get the caller's id without a lookup in the users table.
+ */
+@Component
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new InsufficientAuthenticationException("Authentication required");
+        }
+        if (user.getId() != null) {
+            return user;
+        }
+
+        // Tokens issued before the id claim was added still need one lookup
+        Long id = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new InsufficientAuthenticationException("User not found"))
+                .getId();
+        return new AuthenticatedUser(id, user.getUsername(), user.getRole(), user.getTokenVersion(), user.getExpiresAt());
+    }
+}
@@ -1,7 +1,12 @@
 package com.ecobazaar.config;
 
+import com.ecobazaar.filter.AuthRateLimitFilter;
 import com.ecobazaar.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,12 +25,50 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private AuthRateLimitFilter authRateLimitFilter;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${auth.bcrypt.target-millis:0}")
+    private long bcryptTargetMillis;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptTargetMillis > 0 ? calibrateBcryptStrength() : bcryptStrength;
+        log.info("Using BCrypt strength {}", strength);
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Raises the configured strength while one hash on this machine still fits the target latency.
+     * Each step doubles the work, so the configured strength acts as a floor.
+     */
+    private int calibrateBcryptStrength() {
+        int strength = bcryptStrength;
+        long millis = measureBcryptMillis(strength);
+        while (strength < MAX_BCRYPT_STRENGTH && millis * 2 <= bcryptTargetMillis) {
+            strength++;
+            millis = measureBcryptMillis(strength);
+        }
+        log.info("Calibrated BCrypt strength {} ({} ms per hash, target {} ms)", strength, millis, bcryptTargetMillis);
+        return strength;
+    }
+
+    private long measureBcryptMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration-warmup");
+        long start = System.nanoTime();
+        encoder.encode("calibration-sample");
+        return (System.nanoTime() - start) / 1_000_000;
     }
 
     @Bean
@@ -38,10 +81,14 @@ public class SecurityConfig {
         http.csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/signup", "/api/auth/login").permitAll()
+                        // Streamed responses finish on an async dispatch; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/signup", "/api/auth/login", "/api/auth/refresh", "/api/auth/available").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(authRateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
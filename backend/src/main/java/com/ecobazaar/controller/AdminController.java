@@ -1,20 +1,32 @@
 package com.ecobazaar.controller;
 
+import com.ecobazaar.dto.ModerationOutcomeDTO;
+import com.ecobazaar.dto.ModerationRequest;
 import com.ecobazaar.dto.ProductDTO;
 import com.ecobazaar.entity.User;
 import com.ecobazaar.repository.UserRepository;
+import com.ecobazaar.service.AdminExportService;
+import com.ecobazaar.service.CarbonReestimationService;
+import com.ecobazaar.service.ExportFormat;
 import com.ecobazaar.service.ProductService;
 import com.ecobazaar.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -31,6 +43,15 @@ public class AdminController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AdminExportService adminExportService;
+
+    @Autowired
+    private CarbonReestimationService carbonReestimationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getAdminDashboard() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -97,6 +118,24 @@ public class AdminController {
         }
     }
 
+    @PostMapping("/products/moderate")
+    public ResponseEntity<Map<String, Object>> moderateProducts(@RequestBody ModerationRequest request) {
+        try {
+            List<ModerationOutcomeDTO> outcomes = productService.moderateProducts(request.getApprove(), request.getReject());
+            Map<String, Long> counts = outcomes.stream()
+                    .collect(Collectors.groupingBy(ModerationOutcomeDTO::getOutcome, TreeMap::new, Collectors.counting()));
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Moderation applied");
+            response.put("counts", counts);
+            response.put("outcomes", outcomes);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @DeleteMapping("/products/{productId}")
     public ResponseEntity<Map<String, Object>> deleteProduct(@PathVariable Long productId) {
         try {
@@ -136,4 +175,60 @@ public class AdminController {
         List<User> users = userRepository.findAll();
         return ResponseEntity.ok(users);
     }
+
+    @PostMapping("/carbon/reestimate")
+    public ResponseEntity<Map<String, Object>> reestimateCarbonFootprints() {
+        try {
+            CarbonReestimationService.Result result = carbonReestimationService.reloadAndReestimate();
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Carbon footprints re-estimated");
+            response.put("scanned", result.scanned());
+            response.put("updated", result.updated());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            // Most likely a malformed factor table; the previous tables stay in use
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            ExportFormat exportFormat = ExportFormat.fromParameter(format);
+            StreamingResponseBody body = out -> adminExportService.exportProducts(exportFormat, out);
+            return streamingExport("products", exportFormat, body);
+        } catch (IllegalArgumentException e) {
+            return exportError(e.getMessage());
+        }
+    }
+
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            ExportFormat exportFormat = ExportFormat.fromParameter(format);
+            StreamingResponseBody body = out -> adminExportService.exportUsers(exportFormat, out);
+            return streamingExport("users", exportFormat, body);
+        } catch (IllegalArgumentException e) {
+            return exportError(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamingExport(String name, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + format.getExtension()).build().toString())
+                .body(body);
+    }
+
+    // Streaming handlers only accept a StreamingResponseBody, so errors are streamed too
+    private ResponseEntity<StreamingResponseBody> exportError(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
 }
@@ -1,15 +1,24 @@
 package com.ecobazaar.controller;
 
 import com.ecobazaar.dto.AuthResponse;
+import com.ecobazaar.dto.AuthenticatedUser;
 import com.ecobazaar.dto.LoginRequest;
+import com.ecobazaar.dto.RefreshTokenRequest;
 import com.ecobazaar.dto.SignupRequest;
+import com.ecobazaar.service.AuthRateLimiter;
+import com.ecobazaar.service.PasswordHashingService;
 import com.ecobazaar.service.UserService;
+import com.ecobazaar.service.UsernameAvailabilityService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
@@ -18,11 +27,19 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private UsernameAvailabilityService usernameAvailabilityService;
+
     @PostMapping("/signup")
     public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest signupRequest) {
         try {
             AuthResponse response = userService.signup(signupRequest);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingService.CapacityExceededException e) {
+            return serviceBusy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse(e.getMessage()));
@@ -31,15 +48,65 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+        if (!authRateLimiter.tryAcquireForUsername(loginRequest.getUsername())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ErrorResponse("Too many login attempts, please slow down"));
+        }
         try {
             AuthResponse response = userService.login(loginRequest);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingService.CapacityExceededException e) {
+            return serviceBusy(e);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("username or email is required"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        if (username != null) {
+            response.put("username", username);
+            response.put("usernameAvailable", usernameAvailabilityService.isUsernameAvailable(username));
+        }
+        if (email != null) {
+            response.put("email", email);
+            response.put("emailAvailable", usernameAvailabilityService.isEmailAvailable(email));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        try {
+            AuthResponse response = userService.refresh(refreshRequest.getRefreshToken());
+            return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(AuthenticatedUser user) {
+        userService.logout(user.getId());
+        return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
+    }
+
+    private ResponseEntity<ErrorResponse> serviceBusy(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
     // Inner class for error responses
     public static class ErrorResponse {
         private String message;
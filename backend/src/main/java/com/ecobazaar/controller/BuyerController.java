@@ -1,23 +1,27 @@
 package com.ecobazaar.controller;
 
+import com.ecobazaar.dto.AuthenticatedUser;
 import com.ecobazaar.dto.CartItemDTO;
+import com.ecobazaar.dto.CartSummaryDTO;
+import com.ecobazaar.dto.CartUpdateRequest;
 import com.ecobazaar.dto.ProductDTO;
-import com.ecobazaar.entity.User;
-import com.ecobazaar.repository.UserRepository;
+import com.ecobazaar.dto.ProductPageDTO;
+import com.ecobazaar.dto.ProductSearchResultDTO;
 import com.ecobazaar.service.CartService;
+import com.ecobazaar.service.CatalogFilter;
 import com.ecobazaar.service.OrderService;
 import com.ecobazaar.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/buyer")
@@ -25,6 +29,10 @@ import java.util.Optional;
 @PreAuthorize("hasRole('BUYER') or hasRole('ADMIN')")
 public class BuyerController {
 
+    // Lets clients keep catalog responses but revalidate them with If-None-Match on every use;
+    // setting it also stops Spring Security from sending its default no-store header
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private ProductService productService;
 
@@ -34,44 +42,30 @@ public class BuyerController {
     @Autowired
     private OrderService orderService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     // ========================= DASHBOARD =========================
 
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getBuyerDashboard() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
+    public ResponseEntity<Map<String, Object>> getBuyerDashboard(AuthenticatedUser user) {
         Map<String, Object> response = new HashMap<>();
-        response.put("username", username);
+        response.put("username", user.getUsername());
         response.put("role", "BUYER");
 
-        Optional<User> userOptional = userRepository.findByUsername(username);
+        Long buyerId = user.getId();
+        response.put("userId", buyerId);
 
-        if (userOptional.isPresent()) {
-            Long buyerId = userOptional.get().getId();
-            response.put("userId", buyerId);
+        List<com.ecobazaar.entity.Order> orders =
+                orderService.getOrdersByBuyer(buyerId);
 
-            List<com.ecobazaar.entity.Order> orders =
-                    orderService.getOrdersByBuyer(buyerId);
+        int totalPurchases = orders.size();
 
-            int totalPurchases = orders.size();
+        double totalCarbon = orders.stream()
+                .filter(o -> o.getTotalCarbonFootprint() != null)
+                .mapToDouble(o -> o.getTotalCarbonFootprint().doubleValue())
+                .sum();
 
-            double totalCarbon = orders.stream()
-                    .filter(o -> o.getTotalCarbonFootprint() != null)
-                    .mapToDouble(o -> o.getTotalCarbonFootprint().doubleValue())
-                    .sum();
-
-            response.put("totalPurchases", totalPurchases);
-            response.put("carbonFootprint", String.format("%.1f", totalCarbon));
-            response.put("recentOrders", orders.stream().limit(5).toList());
-        } else {
-            response.put("totalPurchases", 0);
-            response.put("carbonFootprint", "0.0");
-            response.put("recentOrders", List.of());
-        }
+        response.put("totalPurchases", totalPurchases);
+        response.put("carbonFootprint", String.format("%.1f", totalCarbon));
+        response.put("recentOrders", orders.stream().limit(5).toList());
 
         return ResponseEntity.ok(response);
     }
@@ -79,16 +73,80 @@ public class BuyerController {
     // ========================= PRODUCTS =========================
 
     @GetMapping("/products")
-    public ResponseEntity<List<ProductDTO>> getApprovedProducts() {
+    public ResponseEntity<List<ProductDTO>> getApprovedProducts(WebRequest request) {
+        // Read the version before the content, so a concurrent change can only make the tag stale
+        String etag = productService.getCatalogETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<ProductDTO> products = productService.getApprovedProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(products);
+    }
+
+    @GetMapping("/products/page")
+    public ResponseEntity<?> getApprovedProductsPage(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) BigDecimal minEcoRating,
+            @RequestParam(required = false) BigDecimal maxEcoRating,
+            @RequestParam(required = false) BigDecimal minCarbonFootprint,
+            @RequestParam(required = false) BigDecimal maxCarbonFootprint) {
+        try {
+            CatalogFilter filter = new CatalogFilter(minPrice, maxPrice, minEcoRating, maxEcoRating,
+                    minCarbonFootprint, maxCarbonFootprint);
+            ProductPageDTO page = productService.getApprovedProductsPage(sort, cursor, limit, filter);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/products/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) BigDecimal minEcoRating,
+            @RequestParam(required = false) BigDecimal maxEcoRating,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) BigDecimal minCarbonFootprint,
+            @RequestParam(required = false) BigDecimal maxCarbonFootprint,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CatalogFilter filter = new CatalogFilter(minPrice, maxPrice, minEcoRating, maxEcoRating,
+                    minCarbonFootprint, maxCarbonFootprint);
+            ProductSearchResultDTO result = productService.searchApprovedProducts(q, filter, page, size);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
     }
 
     @GetMapping("/products/{productId}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long productId) {
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long productId, WebRequest request) {
+        String etag = productService.getProductETag(productId);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         try {
             ProductDTO product = productService.getProductById(productId);
-            return ResponseEntity.ok(product);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            return etag == null ? ok.body(product) : ok.eTag(etag).cacheControl(REVALIDATE).body(product);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/products/{productId}/alternatives")
+    public ResponseEntity<List<ProductDTO>> getLowerCarbonAlternatives(@PathVariable Long productId,
+                                                                       @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(productService.getLowerCarbonAlternatives(productId, limit));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -98,20 +156,11 @@ public class BuyerController {
 
     @PostMapping("/cart/add")
     public ResponseEntity<Map<String, Object>> addToCart(
+            AuthenticatedUser user,
             @RequestBody Map<String, Object> request) {
 
         try {
-            Authentication authentication =
-                    SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            Optional<User> userOptional = userRepository.findByUsername(username);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("message", "User not found"));
-            }
-
-            Long buyerId = userOptional.get().getId();
+            Long buyerId = user.getId();
             Long productId = Long.valueOf(request.get("productId").toString());
             Integer quantity = Integer.valueOf(request.get("quantity").toString());
 
@@ -131,18 +180,9 @@ public class BuyerController {
     }
 
     @GetMapping("/cart")
-    public ResponseEntity<List<CartItemDTO>> getCart() {
+    public ResponseEntity<List<CartItemDTO>> getCart(AuthenticatedUser user) {
         try {
-            Authentication authentication =
-                    SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            Optional<User> userOptional = userRepository.findByUsername(username);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.badRequest().build();
-            }
-
-            Long buyerId = userOptional.get().getId();
+            Long buyerId = user.getId();
             List<CartItemDTO> cartItems =
                     cartService.getCartItems(buyerId);
 
@@ -153,23 +193,26 @@ public class BuyerController {
         }
     }
 
+    // Item count and totals only, for header badges and mini-cart widgets
+    @GetMapping("/cart/summary")
+    public ResponseEntity<CartSummaryDTO> getCartSummary(AuthenticatedUser user) {
+        try {
+            Long buyerId = user.getId();
+            return ResponseEntity.ok(cartService.getCartSummary(buyerId));
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/cart/{cartItemId}")
     public ResponseEntity<Map<String, Object>> updateCartItem(
+            AuthenticatedUser user,
             @PathVariable Long cartItemId,
             @RequestBody Map<String, Object> request) {
 
         try {
-            Authentication authentication =
-                    SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            Optional<User> userOptional = userRepository.findByUsername(username);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("message", "User not found"));
-            }
-
-            Long buyerId = userOptional.get().getId();
+            Long buyerId = user.getId();
             Integer quantity =
                     Integer.valueOf(request.get("quantity").toString());
 
@@ -188,22 +231,36 @@ public class BuyerController {
         }
     }
 
+    // Applies a list of add/set/remove operations at once and answers with the updated cart
+    @PatchMapping("/cart")
+    public ResponseEntity<Map<String, Object>> updateCart(
+            AuthenticatedUser user,
+            @RequestBody CartUpdateRequest request) {
+
+        try {
+            Long buyerId = user.getId();
+            List<CartItemDTO> cartItems =
+                    cartService.updateCart(buyerId, request.getOperations());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Cart updated");
+            response.put("cartItems", cartItems);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/cart/{cartItemId}")
     public ResponseEntity<Map<String, Object>> removeFromCart(
+            AuthenticatedUser user,
             @PathVariable Long cartItemId) {
 
         try {
-            Authentication authentication =
-                    SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            Optional<User> userOptional = userRepository.findByUsername(username);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("message", "User not found"));
-            }
-
-            Long buyerId = userOptional.get().getId();
+            Long buyerId = user.getId();
             cartService.removeFromCart(buyerId, cartItemId);
 
             return ResponseEntity.ok(
@@ -218,19 +275,9 @@ public class BuyerController {
     // ========================= CHECKOUT =========================
 
     @PostMapping("/cart/checkout")
-    public ResponseEntity<Map<String, Object>> checkout() {
+    public ResponseEntity<Map<String, Object>> checkout(AuthenticatedUser user) {
         try {
-            Authentication authentication =
-                    SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            Optional<User> userOptional = userRepository.findByUsername(username);
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("message", "User not found"));
-            }
-
-            Long buyerId = userOptional.get().getId();
+            Long buyerId = user.getId();
             Map<String, Object> order =
                     orderService.checkout(buyerId);
 
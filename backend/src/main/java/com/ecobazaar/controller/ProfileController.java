@@ -1,14 +1,15 @@
 package com.ecobazaar.controller;
 
+import com.ecobazaar.dto.AuthenticatedUser;
 import com.ecobazaar.dto.UserProfileDTO;
 import com.ecobazaar.entity.User;
 import com.ecobazaar.repository.UserRepository;
+import com.ecobazaar.service.PasswordHashingService;
+import com.ecobazaar.service.UserService;
+import com.ecobazaar.service.UsernameAvailabilityService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -24,14 +25,17 @@ public class ProfileController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    @GetMapping
-    public ResponseEntity<Map<String, Object>> getProfile() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
+    @Autowired
+    private UserService userService;
 
-        Optional<User> userOptional = userRepository.findByUsername(username);
+    @Autowired
+    private UsernameAvailabilityService usernameAvailabilityService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getProfile(AuthenticatedUser principal) {
+        Optional<User> userOptional = userRepository.findById(principal.getId());
         if (userOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -59,11 +63,8 @@ public class ProfileController {
     }
 
     @PutMapping
-    public ResponseEntity<?> updateProfile(@Valid @RequestBody UserProfileDTO profileDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-        Optional<User> userOptional = userRepository.findByUsername(username);
+    public ResponseEntity<?> updateProfile(AuthenticatedUser principal, @Valid @RequestBody UserProfileDTO profileDTO) {
+        Optional<User> userOptional = userRepository.findById(principal.getId());
         if (userOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -81,7 +82,7 @@ public class ProfileController {
 
         // Update password if provided
         if (profileDTO.getPassword() != null && !profileDTO.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(profileDTO.getPassword()));
+            user.setPassword(passwordHashingService.encode(profileDTO.getPassword()));
         }
 
         // Update additional fields (extend User entity if needed)
@@ -89,6 +90,7 @@ public class ProfileController {
         // You can extend User entity to include firstName, lastName, etc.
 
         user = userRepository.save(user);
+        usernameAvailabilityService.recordEmail(user.getEmail());
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Profile updated successfully");
@@ -101,17 +103,14 @@ public class ProfileController {
     }
 
     @DeleteMapping
-    public ResponseEntity<?> deleteProfile() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-        Optional<User> userOptional = userRepository.findByUsername(username);
-        if (userOptional.isEmpty()) {
+    public ResponseEntity<?> deleteProfile(AuthenticatedUser principal) {
+        // Deletes the row and writes the revocation tombstone in one transaction
+        try {
+            userService.deleteUser(principal.getId());
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
 
-        userRepository.delete(userOptional.get());
-
         return ResponseEntity.ok(Map.of("message", "Account deleted successfully"));
     }
 }
@@ -1,22 +1,25 @@
 package com.ecobazaar.controller;
 
+import com.ecobazaar.dto.AuthenticatedUser;
+import com.ecobazaar.dto.BulkImportResultDTO;
 import com.ecobazaar.dto.CreateProductRequest;
 import com.ecobazaar.dto.ProductDTO;
-import com.ecobazaar.entity.User;
-import com.ecobazaar.repository.UserRepository;
+import com.ecobazaar.dto.SellerDashboardStatsDTO;
+import com.ecobazaar.service.ImportFormat;
+import com.ecobazaar.service.ProductImportService;
 import com.ecobazaar.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/seller")
@@ -28,49 +31,33 @@ public class SellerController {
     private ProductService productService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ProductImportService productImportService;
 
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getSellerDashboard() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        Optional<User> userOptional = userRepository.findByUsername(username);
-        if (userOptional.isEmpty()) {
-            return ResponseEntity.badRequest().build();
-        }
-        Long sellerId = userOptional.get().getId();
+    public ResponseEntity<Map<String, Object>> getSellerDashboard(AuthenticatedUser user) {
+        Long sellerId = user.getId();
 
         Map<String, Object> response = new HashMap<>();
-        response.put("username", username);
+        response.put("username", user.getUsername());
         response.put("role", "SELLER");
         
-        List<ProductDTO> products = productService.getProductsBySeller(sellerId);
-        long totalProducts = products.size();
-        long approvedProducts = products.stream().filter(p -> "APPROVED".equals(p.getStatus())).count();
-        long pendingProducts = products.stream().filter(p -> "PENDING".equals(p.getStatus())).count();
-        
-        response.put("totalProducts", totalProducts);
-        response.put("approvedProducts", approvedProducts);
-        response.put("pendingProducts", pendingProducts);
-        response.put("products", products);
+        // Product lists are served by GET /products; the dashboard only needs the aggregates
+        SellerDashboardStatsDTO stats = productService.getSellerDashboardStats(sellerId);
+        response.put("totalProducts", stats.getTotalProducts());
+        response.put("approvedProducts", stats.getApprovedProducts());
+        response.put("pendingProducts", stats.getPendingProducts());
+        response.put("rejectedProducts", stats.getRejectedProducts());
+        response.put("totalStock", stats.getTotalStock());
+        response.put("stockValue", stats.getStockValue());
 
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/products")
-    public ResponseEntity<Map<String, Object>> createProduct(@Valid @RequestBody CreateProductRequest request) {
+    public ResponseEntity<Map<String, Object>> createProduct(AuthenticatedUser user,
+                                                             @Valid @RequestBody CreateProductRequest request) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-            
-            Optional<User> userOptional = userRepository.findByUsername(username);
-            if (userOptional.isEmpty()) {
-                Map<String, Object> error = new HashMap<>();
-                error.put("message", "User not found");
-                return ResponseEntity.badRequest().body(error);
-            }
-            Long sellerId = userOptional.get().getId();
+            Long sellerId = user.getId();
 
             ProductDTO product = productService.createProduct(request, sellerId);
             
@@ -85,32 +72,36 @@ public class SellerController {
         }
     }
 
-    @GetMapping("/products")
-    public ResponseEntity<List<ProductDTO>> getMyProducts() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        Optional<User> userOptional = userRepository.findByUsername(username);
-        if (userOptional.isEmpty()) {
-            return ResponseEntity.badRequest().build();
+    /**
+     * Imports many products from a CSV (text/csv, header row required) or NDJSON
+     * (application/x-ndjson) body, streamed rather than buffered. Responds with a per-row report.
+     */
+    @PostMapping(value = "/products/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> bulkImportProducts(AuthenticatedUser user,
+                                                @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                InputStream body) {
+        try {
+            ImportFormat format = ImportFormat.fromContentType(contentType);
+            BulkImportResultDTO result = productImportService.importProducts(body, format, user.getId());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IOException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         }
-        Long sellerId = userOptional.get().getId();
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductDTO>> getMyProducts(AuthenticatedUser user) {
+        Long sellerId = user.getId();
 
         List<ProductDTO> products = productService.getProductsBySeller(sellerId);
         return ResponseEntity.ok(products);
     }
 
     @DeleteMapping("/products/{productId}")
-    public ResponseEntity<Map<String, Object>> deleteProduct(@PathVariable Long productId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        Optional<User> userOptional = userRepository.findByUsername(username);
-        if (userOptional.isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("message", "Seller not found");
-            return ResponseEntity.badRequest().body(error);
-        }
-        Long sellerId = userOptional.get().getId();
+    public ResponseEntity<Map<String, Object>> deleteProduct(AuthenticatedUser user, @PathVariable Long productId) {
+        Long sellerId = user.getId();
         try {
             var product = productService.getProductEntity(productId);
             if (!product.getSellerId().equals(sellerId)) {
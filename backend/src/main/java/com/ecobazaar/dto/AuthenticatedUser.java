@@ -0,0 +1,59 @@
+package com.ecobazaar.dto;
+
+/**
+ * Immutable view of a verified JWT. Produced once per token by {@link com.ecobazaar.util.JwtUtil#verify(String)}
+ * and safe to share between requests presenting the same token.
+ *
+ * <p>Deliberately not a {@link java.security.Principal}: Spring MVC resolves Principal-typed
+ * controller parameters from the servlet request before any custom resolver runs, which would
+ * bypass {@link com.ecobazaar.config.AuthenticatedUserArgumentResolver}.
+ */
+public final class AuthenticatedUser {
+
+    private final Long id;
+    private final String username;
+    private final String role;
+    private final int tokenVersion;
+    private final long expiresAt;
+
+    public AuthenticatedUser(Long id, String username, String role, int tokenVersion, long expiresAt) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecobazaar.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. Rows are numbered from 1 in input order, not counting the
+ * CSV header or blank lines. Only the first errors are listed; {@code failed} counts them all.
+ */
+public class BulkImportResultDTO {
+    private long received;
+    private long imported;
+    private long failed;
+    private List<ImportRowErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    // Getters and Setters
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ImportRowErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportRowErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
@@ -14,6 +14,26 @@ public class CartItemDTO {
     private BigDecimal subtotal;
     private BigDecimal carbonFootprint;
 
+    // Constructors
+    public CartItemDTO() {
+    }
+
+    /** Projection constructor for the joined cart query; subtotals are computed by the database. */
+    public CartItemDTO(Long id, Long productId, String productName, String productImageUrl, BigDecimal productPrice,
+                       BigDecimal productEcoRating, BigDecimal productCarbonFootprint, Integer quantity,
+                       BigDecimal subtotal, BigDecimal carbonFootprint) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.productImageUrl = productImageUrl;
+        this.productPrice = productPrice;
+        this.productEcoRating = productEcoRating;
+        this.productCarbonFootprint = productCarbonFootprint;
+        this.quantity = quantity;
+        this.subtotal = subtotal;
+        this.carbonFootprint = carbonFootprint;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
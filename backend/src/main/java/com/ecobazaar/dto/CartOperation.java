@@ -0,0 +1,56 @@
+package com.ecobazaar.dto;
+
+/**
+ * One step of a batched cart update: {@code add} takes a productId and a quantity to add,
+ * {@code set} a cartItemId and its new quantity, and {@code remove} a cartItemId.
+ */
+public class CartOperation {
+    private String op;
+    private Long productId;
+    private Long cartItemId;
+    private Integer quantity;
+
+    // Constructors
+    public CartOperation() {
+    }
+
+    public CartOperation(String op, Long productId, Long cartItemId, Integer quantity) {
+        this.op = op;
+        this.productId = productId;
+        this.cartItemId = cartItemId;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getCartItemId() {
+        return cartItemId;
+    }
+
+    public void setCartItemId(Long cartItemId) {
+        this.cartItemId = cartItemId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
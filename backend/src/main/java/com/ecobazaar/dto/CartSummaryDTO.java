@@ -0,0 +1,54 @@
+package com.ecobazaar.dto;
+
+import java.math.BigDecimal;
+
+public class CartSummaryDTO {
+    private int itemCount;
+    private int lineCount;
+    private BigDecimal totalAmount;
+    private BigDecimal totalCarbonFootprint;
+
+    // Constructors
+    public CartSummaryDTO() {
+    }
+
+    public CartSummaryDTO(int itemCount, int lineCount, BigDecimal totalAmount, BigDecimal totalCarbonFootprint) {
+        this.itemCount = itemCount;
+        this.lineCount = lineCount;
+        this.totalAmount = totalAmount;
+        this.totalCarbonFootprint = totalCarbonFootprint;
+    }
+
+    // Getters and Setters
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getTotalCarbonFootprint() {
+        return totalCarbonFootprint;
+    }
+
+    public void setTotalCarbonFootprint(BigDecimal totalCarbonFootprint) {
+        this.totalCarbonFootprint = totalCarbonFootprint;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecobazaar.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CartUpdateRequest {
+    private List<CartOperation> operations = new ArrayList<>();
+
+    // Getters and Setters
+    public List<CartOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<CartOperation> operations) {
+        this.operations = operations;
+    }
+}
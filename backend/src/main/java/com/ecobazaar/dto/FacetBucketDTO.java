@@ -0,0 +1,47 @@
+package com.ecobazaar.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One facet bucket covering {@code [from, to)}; a {@code null} bound is open.
+ */
+public class FacetBucketDTO {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+
+    // Constructors
+    public FacetBucketDTO() {
+    }
+
+    public FacetBucketDTO(BigDecimal from, BigDecimal to, long count) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public BigDecimal getFrom() {
+        return from;
+    }
+
+    public void setFrom(BigDecimal from) {
+        this.from = from;
+    }
+
+    public BigDecimal getTo() {
+        return to;
+    }
+
+    public void setTo(BigDecimal to) {
+        this.to = to;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
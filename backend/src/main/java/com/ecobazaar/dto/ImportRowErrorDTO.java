@@ -0,0 +1,32 @@
+package com.ecobazaar.dto;
+
+public class ImportRowErrorDTO {
+    private long row;
+    private String message;
+
+    // Constructors
+    public ImportRowErrorDTO() {
+    }
+
+    public ImportRowErrorDTO(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
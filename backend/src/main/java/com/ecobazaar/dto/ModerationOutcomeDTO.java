@@ -0,0 +1,47 @@
+package com.ecobazaar.dto;
+
+/**
+ * What happened to one product in a bulk moderation request. {@code outcome} is one of
+ * APPROVED, REJECTED, SKIPPED (the product was no longer pending; {@code status} holds its
+ * current status), NOT_FOUND or CONFLICT (the id was listed for both approval and rejection).
+ */
+public class ModerationOutcomeDTO {
+    private Long id;
+    private String outcome;
+    private String status;
+
+    // Constructors
+    public ModerationOutcomeDTO() {
+    }
+
+    public ModerationOutcomeDTO(Long id, String outcome, String status) {
+        this.id = id;
+        this.outcome = outcome;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
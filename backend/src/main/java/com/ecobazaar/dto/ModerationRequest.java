@@ -0,0 +1,26 @@
+package com.ecobazaar.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ModerationRequest {
+    private List<Long> approve = new ArrayList<>();
+    private List<Long> reject = new ArrayList<>();
+
+    // Getters and Setters
+    public List<Long> getApprove() {
+        return approve;
+    }
+
+    public void setApprove(List<Long> approve) {
+        this.approve = approve;
+    }
+
+    public List<Long> getReject() {
+        return reject;
+    }
+
+    public void setReject(List<Long> reject) {
+        this.reject = reject;
+    }
+}
@@ -1,8 +1,14 @@
 package com.ecobazaar.dto;
 
+import com.ecobazaar.entity.Product;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 public class ProductDTO {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private Long id;
     private String name;
     private String description;
@@ -20,6 +26,24 @@ public class ProductDTO {
     public ProductDTO() {
     }
 
+    // Used by JPQL constructor expressions in ProductRepository, so reads never materialize entities
+    public ProductDTO(Long id, String name, String description, BigDecimal price, String imageUrl,
+                      Integer quantity, BigDecimal ecoRating, Product.Status status, Long sellerId,
+                      BigDecimal carbonFootprint, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.quantity = quantity;
+        this.ecoRating = ecoRating;
+        this.status = status == null ? null : status.name();
+        this.sellerId = sellerId;
+        this.carbonFootprint = carbonFootprint;
+        this.createdAt = createdAt == null ? null : createdAt.format(TIMESTAMP_FORMAT);
+        this.updatedAt = updatedAt == null ? null : updatedAt.format(TIMESTAMP_FORMAT);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
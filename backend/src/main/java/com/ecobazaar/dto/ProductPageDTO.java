@@ -0,0 +1,64 @@
+package com.ecobazaar.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductPageDTO {
+    private List<ProductDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private Map<String, List<FacetBucketDTO>> facets;
+    // Facets whose counts are upper bounds, because a filter on another axis falls between edges
+    private List<String> approximateFacets;
+
+    // Constructors
+    public ProductPageDTO() {
+    }
+
+    public ProductPageDTO(List<ProductDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<ProductDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Map<String, List<FacetBucketDTO>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetBucketDTO>> facets) {
+        this.facets = facets;
+    }
+
+    public List<String> getApproximateFacets() {
+        return approximateFacets;
+    }
+
+    public void setApproximateFacets(List<String> approximateFacets) {
+        this.approximateFacets = approximateFacets;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecobazaar.dto;
+
+import java.util.List;
+
+public class ProductSearchResultDTO {
+    private List<ProductDTO> items;
+    private long total;
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    // Constructors
+    public ProductSearchResultDTO() {
+    }
+
+    public ProductSearchResultDTO(List<ProductDTO> items, long total, int page, int size) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.hasMore = (long) (page + 1) * size < total;
+    }
+
+    // Getters and Setters
+    public List<ProductDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductDTO> items) {
+        this.items = items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
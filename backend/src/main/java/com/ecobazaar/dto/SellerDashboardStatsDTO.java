@@ -0,0 +1,69 @@
+package com.ecobazaar.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregate figures for a seller's dashboard: product counts per status plus the stock on hand
+ * and its value at current prices, across all of the seller's products.
+ */
+public class SellerDashboardStatsDTO {
+    private long totalProducts;
+    private long approvedProducts;
+    private long pendingProducts;
+    private long rejectedProducts;
+    private long totalStock;
+    private BigDecimal stockValue = BigDecimal.ZERO;
+
+    // Constructors
+    public SellerDashboardStatsDTO() {
+    }
+
+    // Getters and Setters
+    public long getTotalProducts() {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(long totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+
+    public long getApprovedProducts() {
+        return approvedProducts;
+    }
+
+    public void setApprovedProducts(long approvedProducts) {
+        this.approvedProducts = approvedProducts;
+    }
+
+    public long getPendingProducts() {
+        return pendingProducts;
+    }
+
+    public void setPendingProducts(long pendingProducts) {
+        this.pendingProducts = pendingProducts;
+    }
+
+    public long getRejectedProducts() {
+        return rejectedProducts;
+    }
+
+    public void setRejectedProducts(long rejectedProducts) {
+        this.rejectedProducts = rejectedProducts;
+    }
+
+    public long getTotalStock() {
+        return totalStock;
+    }
+
+    public void setTotalStock(long totalStock) {
+        this.totalStock = totalStock;
+    }
+
+    public BigDecimal getStockValue() {
+        return stockValue;
+    }
+
+    public void setStockValue(BigDecimal stockValue) {
+        this.stockValue = stockValue;
+    }
+}
@@ -5,11 +5,18 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = {
+        // One line per buyer and product; the add-to-cart upsert resolves conflicts on it, and it
+        // also serves every per-buyer cart lookup
+        @Index(name = "idx_cart_items_buyer_product", columnList = "buyer_id, product_id", unique = true),
+        // Finds the carts whose totals a deleted or re-estimated product changes
+        @Index(name = "idx_cart_items_product", columnList = "product_id")
+})
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "buyer_id", nullable = false)
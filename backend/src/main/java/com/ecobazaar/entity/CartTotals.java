@@ -0,0 +1,88 @@
+package com.ecobazaar.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One buyer's cart totals, kept in step with cart_items by every cart write in the same
+ * transaction. Written through native queries in CartTotalsRepository; a buyer without a row has
+ * their totals computed from the cart instead.
+ */
+@Entity
+@Table(name = "cart_totals")
+public class CartTotals {
+
+    @Id
+    @Column(name = "buyer_id")
+    private Long buyerId;
+
+    // Units across all lines
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount;
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "carbon_footprint", nullable = false, precision = 14, scale = 2)
+    private BigDecimal carbonFootprint;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public CartTotals() {
+    }
+
+    // Getters and Setters
+    public Long getBuyerId() {
+        return buyerId;
+    }
+
+    public void setBuyerId(Long buyerId) {
+        this.buyerId = buyerId;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BigDecimal getCarbonFootprint() {
+        return carbonFootprint;
+    }
+
+    public void setCarbonFootprint(BigDecimal carbonFootprint) {
+        this.carbonFootprint = carbonFootprint;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
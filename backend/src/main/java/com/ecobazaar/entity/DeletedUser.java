@@ -0,0 +1,52 @@
+package com.ecobazaar.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone for a deleted account, written in the same transaction as the delete. The user row is
+ * gone, so this is what tells every node's token revocation table to reject the user's tokens.
+ */
+@Entity
+@Table(name = "deleted_users", indexes = {
+        @Index(name = "idx_deleted_users_deleted_at", columnList = "deleted_at")
+})
+public class DeletedUser {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public DeletedUser() {
+    }
+
+    public DeletedUser(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -6,11 +6,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_status_created_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_products_status_price_id", columnList = "status, price, id"),
+        @Index(name = "idx_products_status_eco_id", columnList = "status, eco_rating, id"),
+        // Covers the seller dashboard aggregate so it runs as an index-only scan
+        @Index(name = "idx_products_seller_status", columnList = "seller_id, status, quantity, price")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -55,6 +62,10 @@ public class Product {
     @Column(name = "carbon_footprint", precision = 10, scale = 2)
     private BigDecimal carbonFootprint; // in kg CO2e
 
+    // True when carbonFootprint came from the CarbonEstimator rather than the seller
+    @Column(name = "carbon_footprint_estimated", nullable = false, columnDefinition = "boolean default false")
+    private boolean carbonFootprintEstimated = false;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -169,6 +180,14 @@ public class Product {
         this.carbonFootprint = carbonFootprint;
     }
 
+    public boolean isCarbonFootprintEstimated() {
+        return carbonFootprintEstimated;
+    }
+
+    public void setCarbonFootprintEstimated(boolean carbonFootprintEstimated) {
+        this.carbonFootprintEstimated = carbonFootprintEstimated;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
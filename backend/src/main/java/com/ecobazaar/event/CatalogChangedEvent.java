@@ -0,0 +1,25 @@
+package com.ecobazaar.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever products are created, moderated, deleted or have their stock changed.
+ * Listeners reload the listed ids once the publishing transaction has committed.
+ */
+public class CatalogChangedEvent {
+
+    private final Collection<Long> productIds;
+
+    public CatalogChangedEvent(Collection<Long> productIds) {
+        this.productIds = productIds;
+    }
+
+    public static CatalogChangedEvent of(Long productId) {
+        return new CatalogChangedEvent(List.of(productId));
+    }
+
+    public Collection<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -1,7 +1,12 @@
 package com.ecobazaar.repository;
 
+import com.ecobazaar.dto.CartItemDTO;
+import com.ecobazaar.dto.CartSummaryDTO;
 import com.ecobazaar.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +16,58 @@ import java.util.Optional;
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByBuyerId(Long buyerId);
     Optional<CartItem> findByBuyerIdAndProductId(Long buyerId, Long productId);
-    void deleteByBuyerId(Long buyerId);
     long countByBuyerId(Long buyerId);
+
+    // Whole cart in one statement: each line joined to its product and projected straight into the
+    // DTO. Lines whose product has since been deleted drop out of the join.
+    @Query("SELECT new com.ecobazaar.dto.CartItemDTO(c.id, c.productId, p.name, p.imageUrl, p.price, p.ecoRating, "
+            + "p.carbonFootprint, c.quantity, p.price * c.quantity, p.carbonFootprint * c.quantity) "
+            + "FROM CartItem c JOIN Product p ON p.id = c.productId WHERE c.buyerId = :buyerId ORDER BY c.id")
+    List<CartItemDTO> findCartDtosByBuyerId(@Param("buyerId") Long buyerId);
+
+    // Cart summary straight from the lines, for buyers without a cart_totals row
+    @Query("SELECT new com.ecobazaar.dto.CartSummaryDTO(CAST(COALESCE(SUM(c.quantity), 0) AS Integer), "
+            + "CAST(COUNT(c) AS Integer), COALESCE(SUM(p.price * c.quantity), 0), "
+            + "COALESCE(SUM(p.carbonFootprint * c.quantity), 0)) "
+            + "FROM CartItem c JOIN Product p ON p.id = c.productId WHERE c.buyerId = :buyerId")
+    CartSummaryDTO summarizeByBuyerId(@Param("buyerId") Long buyerId);
+
+    // A buyer's cart line together with its product, as {CartItem, Product}
+    @Query("SELECT c, p FROM CartItem c JOIN Product p ON p.id = c.productId WHERE c.id = :id AND c.buyerId = :buyerId")
+    List<Object[]> findWithProduct(@Param("id") Long id, @Param("buyerId") Long buyerId);
+
+    // Add-to-cart in one statement: inserts the line or adds to the existing one under the unique
+    // (buyer_id, product_id) index, only while the product is approved and the resulting quantity is
+    // in stock. Returns the line with its product as CartItemDTO columns, or nothing when refused.
+    @Query(value = "WITH line AS ("
+            + "INSERT INTO cart_items (id, buyer_id, product_id, quantity, created_at, updated_at) "
+            + "SELECT nextval('cart_items_seq'), :buyerId, p.id, :quantity, now(), now() FROM products p "
+            + "WHERE p.id = :productId AND p.status = 'APPROVED' AND p.quantity >= :quantity "
+            + "ON CONFLICT (buyer_id, product_id) DO UPDATE "
+            + "SET quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at "
+            + "WHERE cart_items.quantity + EXCLUDED.quantity <= "
+            + "(SELECT s.quantity FROM products s WHERE s.id = EXCLUDED.product_id) "
+            + "RETURNING id, product_id, quantity) "
+            + "SELECT l.id, l.product_id, p.name, p.image_url, p.price, p.eco_rating, p.carbon_footprint, l.quantity, "
+            + "p.price * l.quantity, p.carbon_footprint * l.quantity FROM line l JOIN products p ON p.id = l.product_id",
+            nativeQuery = true)
+    List<Object[]> upsertLine(@Param("buyerId") Long buyerId,
+                              @Param("productId") Long productId,
+                              @Param("quantity") Integer quantity);
+
+    // A product together with the buyer's existing cart line for it, if any, as {Product, CartItem or null}
+    @Query("SELECT p, c FROM Product p LEFT JOIN CartItem c ON c.productId = p.id AND c.buyerId = :buyerId "
+            + "WHERE p.id = :productId")
+    List<Object[]> findProductWithCartLine(@Param("productId") Long productId, @Param("buyerId") Long buyerId);
+
+    // Serializes writes to one buyer's cart: a transaction-scoped advisory lock keyed by the buyer id,
+    // released at commit or rollback. Every database-mode cart write takes it before reading the
+    // lines it changes, so a read-modify-write never interleaves with another write to the same cart.
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:buyerId)", nativeQuery = true)
+    Integer lockCart(@Param("buyerId") Long buyerId);
+
+    // One DELETE statement rather than loading the rows and removing them one by one
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.buyerId = :buyerId")
+    void deleteByBuyerId(@Param("buyerId") Long buyerId);
 }
@@ -0,0 +1,81 @@
+package com.ecobazaar.repository;
+
+import com.ecobazaar.dto.CartSummaryDTO;
+import com.ecobazaar.entity.CartTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Every statement that reads product prices into the totals holds those product rows FOR SHARE
+// until commit, so a product cannot be deleted or have its footprint re-estimated between being
+// counted and the write committing; whatever changes it afterwards recalculates the carts holding it.
+@Repository
+public interface CartTotalsRepository extends JpaRepository<CartTotals, Long> {
+
+    @Query("SELECT new com.ecobazaar.dto.CartSummaryDTO(t.itemCount, t.lineCount, t.amount, t.carbonFootprint) "
+            + "FROM CartTotals t WHERE t.buyerId = :buyerId")
+    Optional<CartSummaryDTO> findSummary(@Param("buyerId") Long buyerId);
+
+    // Adds units of one product, and lines (+1 for a new line, -1 for a removed one), at the product's
+    // current price and footprint. Returns 0 when the buyer has no row or the product no longer exists.
+    @Modifying
+    @Query(value = "WITH p AS (SELECT price, carbon_footprint FROM products WHERE id = :productId FOR SHARE) "
+            + "UPDATE cart_totals t SET item_count = t.item_count + :units, line_count = t.line_count + :lines, "
+            + "amount = t.amount + p.price * :units, "
+            + "carbon_footprint = t.carbon_footprint + COALESCE(p.carbon_footprint, 0) * :units, updated_at = now() "
+            + "FROM p WHERE t.buyer_id = :buyerId",
+            nativeQuery = true)
+    int addLine(@Param("buyerId") Long buyerId, @Param("productId") Long productId,
+                @Param("units") int units, @Param("lines") int lines);
+
+    // Creates the buyer's row from their cart lines; lines whose product has been deleted are left
+    // out, as in the joined cart query
+    @Modifying
+    @Query(value = "WITH line AS (SELECT c.quantity, p.price, p.carbon_footprint FROM cart_items c "
+            + "JOIN products p ON p.id = c.product_id WHERE c.buyer_id = :buyerId ORDER BY p.id FOR SHARE OF p) "
+            + "INSERT INTO cart_totals (buyer_id, item_count, line_count, amount, carbon_footprint, updated_at) "
+            + "SELECT :buyerId, COALESCE(SUM(quantity), 0), COUNT(*), COALESCE(SUM(price * quantity), 0), "
+            + "COALESCE(SUM(carbon_footprint * quantity), 0), now() FROM line "
+            + "ON CONFLICT (buyer_id) DO NOTHING",
+            nativeQuery = true)
+    int create(@Param("buyerId") Long buyerId);
+
+    // Recomputes the rows of the given buyers from their cart lines
+    @Modifying
+    @Query(value = "WITH line AS (SELECT c.buyer_id, c.quantity, p.price, p.carbon_footprint FROM cart_items c "
+            + "JOIN products p ON p.id = c.product_id WHERE c.buyer_id IN (:buyerIds) ORDER BY p.id FOR SHARE OF p) "
+            + "UPDATE cart_totals t SET item_count = s.item_count, line_count = s.line_count, amount = s.amount, "
+            + "carbon_footprint = s.carbon_footprint, updated_at = now() "
+            + "FROM (SELECT b.buyer_id, COALESCE(SUM(l.quantity), 0) AS item_count, COUNT(l.buyer_id) AS line_count, "
+            + "COALESCE(SUM(l.price * l.quantity), 0) AS amount, "
+            + "COALESCE(SUM(l.carbon_footprint * l.quantity), 0) AS carbon_footprint "
+            + "FROM cart_totals b LEFT JOIN line l ON l.buyer_id = b.buyer_id "
+            + "WHERE b.buyer_id IN (:buyerIds) GROUP BY b.buyer_id) s "
+            + "WHERE t.buyer_id = s.buyer_id",
+            nativeQuery = true)
+    int recalculate(@Param("buyerIds") Collection<Long> buyerIds);
+
+    @Modifying
+    @Query(value = "UPDATE cart_totals SET item_count = 0, line_count = 0, amount = 0, carbon_footprint = 0, "
+            + "updated_at = now() WHERE buyer_id = :buyerId",
+            nativeQuery = true)
+    int clear(@Param("buyerId") Long buyerId);
+
+    @Modifying
+    @Query("DELETE FROM CartTotals t WHERE t.buyerId IN :buyerIds")
+    int deleteByBuyerIdIn(@Param("buyerIds") Collection<Long> buyerIds);
+
+    // Takes the cart lock (see CartItemRepository.lockCart) of every buyer with a row whose cart holds
+    // one of the products, in buyer id order so two of these never deadlock, and returns those buyers
+    @Query(value = "SELECT b.buyer_id FROM (SELECT t.buyer_id FROM cart_totals t WHERE t.buyer_id IN "
+            + "(SELECT c.buyer_id FROM cart_items c WHERE c.product_id IN (:productIds)) ORDER BY t.buyer_id) b, "
+            + "LATERAL pg_advisory_xact_lock(b.buyer_id)",
+            nativeQuery = true)
+    List<Long> lockCartsHolding(@Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,22 @@
+package com.ecobazaar.repository;
+
+import com.ecobazaar.entity.DeletedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, Long> {
+
+    @Query("select d.userId from DeletedUser d")
+    List<Long> findAllUserIds();
+
+    @Modifying
+    @Query("delete from DeletedUser d where d.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,21 @@
 package com.ecobazaar.repository;
 
+import com.ecobazaar.dto.ProductDTO;
 import com.ecobazaar.entity.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -12,4 +23,148 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByStatus(Product.Status status);
     List<Product> findByStatusOrderByCreatedAtDesc(Product.Status status);
     List<Product> findByStatusAndSellerId(Product.Status status, Long sellerId);
+
+    // DTO projections for read paths: only the listed columns are selected and nothing enters
+    // the persistence context, so there is no entity hydration or dirty checking
+
+    String PRODUCT_DTO = "SELECT new com.ecobazaar.dto.ProductDTO(p.id, p.name, p.description, p.price, p.imageUrl, "
+            + "p.quantity, p.ecoRating, p.status, p.sellerId, p.carbonFootprint, p.createdAt, p.updatedAt) FROM Product p ";
+
+    @Query(PRODUCT_DTO + "WHERE p.sellerId = :sellerId")
+    List<ProductDTO> findDtosBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query(PRODUCT_DTO + "WHERE p.status = :status")
+    List<ProductDTO> findDtosByStatus(@Param("status") Product.Status status);
+
+    @Query(PRODUCT_DTO + "WHERE p.status = :status ORDER BY p.createdAt DESC")
+    List<ProductDTO> findDtosByStatusOrderByCreatedAtDesc(@Param("status") Product.Status status);
+
+    @Query(PRODUCT_DTO)
+    List<ProductDTO> findAllDtos();
+
+    // Guarded status transitions for bulk moderation: only rows still in the expected status move,
+    // and the ids that actually changed come back in the same statement
+    @Query(value = "UPDATE products SET status = :target, updated_at = now() "
+            + "WHERE id IN (:ids) AND status = :expected RETURNING id", nativeQuery = true)
+    List<Long> transitionStatus(@Param("ids") Collection<Long> ids,
+                                @Param("expected") String expected,
+                                @Param("target") String target);
+
+    // Seller dashboard: one row per status with product count, units in stock and stock value.
+    // Answered from idx_products_seller_status without loading a single product.
+    @Query("SELECT p.status, COUNT(p), COALESCE(SUM(p.quantity), 0), COALESCE(SUM(p.price * p.quantity), 0) "
+            + "FROM Product p WHERE p.sellerId = :sellerId GROUP BY p.status")
+    List<Object[]> summarizeBySeller(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT p.id, p.status FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Checkout: locks the products in id order, so concurrent checkouts and stock holds on the
+    // same products queue up rather than all passing the stock check
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Primary-key lookups of just the columns cart totals are counted from: [id, price, carbonFootprint]
+    @Query("SELECT p.id, p.price, p.carbonFootprint FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // Catalog version when there is no snapshot, as [count, latest updatedAt]. Every
+    // product write sets updated_at, and removing a product from the list changes the count.
+    @Query("SELECT COUNT(p), MAX(p.updatedAt) FROM Product p WHERE p.status = :status")
+    List<Object[]> findCountAndLatestUpdateByStatus(@Param("status") Product.Status status);
+
+    // Keyset pages over approved products. Each pair is served by one of the composite
+    // (status, sort column, id) indexes declared on Product, so deep pages cost the same as the first.
+
+    @Query(value = "SELECT * FROM products WHERE status = 'APPROVED' "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Product> findApprovedNewestFirst(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM products WHERE status = 'APPROVED' AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Product> findApprovedNewestFirstAfter(@Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM products WHERE status = 'APPROVED' "
+            + "ORDER BY price ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findApprovedCheapestFirst(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM products WHERE status = 'APPROVED' AND (price, id) > (:price, :id) "
+            + "ORDER BY price ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findApprovedCheapestFirstAfter(@Param("price") BigDecimal price,
+                                                @Param("id") Long id,
+                                                @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM products WHERE status = 'APPROVED' "
+            + "ORDER BY eco_rating DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Product> findApprovedGreenestFirst(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM products WHERE status = 'APPROVED' AND (eco_rating, id) < (:ecoRating, :id) "
+            + "ORDER BY eco_rating DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Product> findApprovedGreenestFirstAfter(@Param("ecoRating") BigDecimal ecoRating,
+                                                @Param("id") Long id,
+                                                @Param("limit") int limit);
+
+    // Optional inclusive range filters shared by the fallback queries below; a null bound is ignored
+    String RANGE_FILTER = "AND (:minPrice IS NULL OR p.price >= :minPrice) AND (:maxPrice IS NULL OR p.price <= :maxPrice) "
+            + "AND (:minEco IS NULL OR p.ecoRating >= :minEco) AND (:maxEco IS NULL OR p.ecoRating <= :maxEco) "
+            + "AND (:minCarbon IS NULL OR p.carbonFootprint >= :minCarbon) "
+            + "AND (:maxCarbon IS NULL OR p.carbonFootprint <= :maxCarbon) ";
+
+    // Filtered keyset pages, used only while the in-memory snapshot is unavailable. A null key
+    // starts from the first page; pass a Pageable of (0, limit) to bound the result.
+
+    @Query("SELECT p FROM Product p WHERE p.status = com.ecobazaar.entity.Product$Status.APPROVED "
+            + "AND (:createdAt IS NULL OR p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+            + RANGE_FILTER + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findApprovedNewestFirstFiltered(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                  @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                                  @Param("minEco") BigDecimal minEco, @Param("maxEco") BigDecimal maxEco,
+                                                  @Param("minCarbon") BigDecimal minCarbon, @Param("maxCarbon") BigDecimal maxCarbon,
+                                                  Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.status = com.ecobazaar.entity.Product$Status.APPROVED "
+            + "AND (:price IS NULL OR p.price > :price OR (p.price = :price AND p.id > :id)) "
+            + RANGE_FILTER + "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findApprovedCheapestFirstFiltered(@Param("price") BigDecimal price, @Param("id") Long id,
+                                                    @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                                    @Param("minEco") BigDecimal minEco, @Param("maxEco") BigDecimal maxEco,
+                                                    @Param("minCarbon") BigDecimal minCarbon, @Param("maxCarbon") BigDecimal maxCarbon,
+                                                    Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.status = com.ecobazaar.entity.Product$Status.APPROVED "
+            + "AND (:ecoRating IS NULL OR p.ecoRating < :ecoRating OR (p.ecoRating = :ecoRating AND p.id < :id)) "
+            + RANGE_FILTER + "ORDER BY p.ecoRating DESC, p.id DESC")
+    List<Product> findApprovedGreenestFirstFiltered(@Param("ecoRating") BigDecimal ecoRating, @Param("id") Long id,
+                                                    @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                                    @Param("minEco") BigDecimal minEco, @Param("maxEco") BigDecimal maxEco,
+                                                    @Param("minCarbon") BigDecimal minCarbon, @Param("maxCarbon") BigDecimal maxCarbon,
+                                                    Pageable pageable);
+
+    // Substring search used only while the in-memory search index is unavailable
+    @Query("SELECT p FROM Product p WHERE p.status = com.ecobazaar.entity.Product$Status.APPROVED "
+            + "AND (LOWER(p.name) LIKE :pattern OR LOWER(p.description) LIKE :pattern) " + RANGE_FILTER)
+    Page<Product> searchApproved(@Param("pattern") String pattern,
+                                 @Param("minPrice") BigDecimal minPrice,
+                                 @Param("maxPrice") BigDecimal maxPrice,
+                                 @Param("minEco") BigDecimal minEco,
+                                 @Param("maxEco") BigDecimal maxEco,
+                                 @Param("minCarbon") BigDecimal minCarbon,
+                                 @Param("maxCarbon") BigDecimal maxCarbon,
+                                 Pageable pageable);
+
+    // Lower-carbon alternatives in a similar price range, used only while the alternatives index is unavailable
+    @Query(PRODUCT_DTO + "WHERE p.status = com.ecobazaar.entity.Product$Status.APPROVED AND p.id <> :id "
+            + "AND p.carbonFootprint < :carbon AND p.price BETWEEN :minPrice AND :maxPrice "
+            + "ORDER BY p.carbonFootprint ASC, p.id DESC")
+    List<ProductDTO> findApprovedLowerCarbonAlternatives(@Param("id") Long id,
+                                                         @Param("carbon") BigDecimal carbon,
+                                                         @Param("minPrice") BigDecimal minPrice,
+                                                         @Param("maxPrice") BigDecimal maxPrice,
+                                                         Pageable pageable);
 }
@@ -0,0 +1,49 @@
+package com.ecobazaar.repository;
+
+import com.ecobazaar.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Sets the buyer's hold on the product to quantity units for ttlSeconds, but only if that many
+    // are in stock and not held by other buyers. The product row is locked first, so concurrent
+    // holds on the same product are decided one at a time. Returns the hold's id, or nothing when
+    // refused.
+    @Query(value = "WITH p AS (SELECT id, quantity FROM products WHERE id = :productId FOR UPDATE) " +
+            "INSERT INTO stock_reservations (id, buyer_id, product_id, quantity, expires_at) " +
+            "SELECT nextval('stock_reservations_seq'), :buyerId, p.id, :quantity, " +
+            "       LOCALTIMESTAMP + :ttlSeconds * INTERVAL '1 second' " +
+            "FROM p " +
+            "WHERE p.quantity - COALESCE((SELECT SUM(r.quantity) FROM stock_reservations r " +
+            "                             WHERE r.product_id = p.id AND r.buyer_id <> :buyerId " +
+            "                               AND r.expires_at > LOCALTIMESTAMP), 0) >= :quantity " +
+            "ON CONFLICT (buyer_id, product_id) DO UPDATE " +
+            "SET quantity = EXCLUDED.quantity, expires_at = EXCLUDED.expires_at " +
+            "RETURNING id",
+            nativeQuery = true)
+    List<Long> hold(@Param("buyerId") Long buyerId, @Param("productId") Long productId,
+                    @Param("quantity") Integer quantity, @Param("ttlSeconds") long ttlSeconds);
+
+    // Units of each product held by buyers other than buyerId: [productId, units]
+    @Query(value = "SELECT r.product_id, SUM(r.quantity) FROM stock_reservations r " +
+            "WHERE r.product_id IN (:productIds) AND r.buyer_id <> :buyerId AND r.expires_at > LOCALTIMESTAMP " +
+            "GROUP BY r.product_id",
+            nativeQuery = true)
+    List<Object[]> sumHeldByOthers(@Param("productIds") Collection<Long> productIds, @Param("buyerId") Long buyerId);
+
+    @Modifying
+    @Query("delete from StockReservation r where r.buyerId = :buyerId and r.productId in :productIds")
+    int release(@Param("buyerId") Long buyerId, @Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("delete from StockReservation r where r.buyerId = :buyerId")
+    int releaseAll(@Param("buyerId") Long buyerId);
+}
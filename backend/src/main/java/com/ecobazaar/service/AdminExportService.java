@@ -0,0 +1,213 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streams whole tables to admins as CSV or NDJSON. Rows are read through a forward-only cursor
+ * with a fixed fetch size inside a read-only transaction (PostgreSQL only honours the fetch size
+ * with auto-commit off) and written straight to the response, so memory use does not depend on
+ * the size of the table.
+ */
+@Service
+public class AdminExportService {
+
+    private static final String PRODUCTS_SQL = "SELECT id, name, description, price, image_url AS \"imageUrl\", "
+            + "quantity, eco_rating AS \"ecoRating\", status, seller_id AS \"sellerId\", "
+            + "carbon_footprint AS \"carbonFootprint\", created_at AS \"createdAt\", updated_at AS \"updatedAt\" "
+            + "FROM products ORDER BY id";
+
+    // Password hashes and token versions never leave the database
+    private static final String USERS_SQL = "SELECT id, username, email, role, "
+            + "created_at AS \"createdAt\", updated_at AS \"updatedAt\" FROM users ORDER BY id";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${admin.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private TransactionTemplate exportTransaction;
+
+    @PostConstruct
+    void init() {
+        exportTransaction = new TransactionTemplate(transactionManager);
+        exportTransaction.setReadOnly(true);
+    }
+
+    public void exportProducts(ExportFormat format, OutputStream out) throws IOException {
+        export("products", PRODUCTS_SQL, format, out);
+    }
+
+    public void exportUsers(ExportFormat format, OutputStream out) throws IOException {
+        export("users", USERS_SQL, format, out);
+    }
+
+    private void export(String table, String sql, ExportFormat format, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+            exportTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (ResultSet rs) -> {
+                try {
+                    writer.start(rs.getMetaData());
+                    while (rs.next()) {
+                        writer.row(rs);
+                    }
+                    writer.finish();
+                } catch (IOException e) {
+                    // Usually the client went away; abandon the cursor rather than keep reading
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            sample.stop(meterRegistry.timer("admin.export.duration", "table", table, "format", format.getExtension()));
+        }
+    }
+
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().format(TIMESTAMP_FORMAT);
+        }
+        return value;
+    }
+
+    /* ================= WRITERS ================= */
+
+    private interface RowWriter {
+
+        void start(ResultSetMetaData metaData) throws SQLException, IOException;
+
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /** Header row of column labels, then one record per row. */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final BufferedWriter writer;
+        private final CsvWriter csv;
+        private int columns;
+
+        CsvRowWriter(OutputStream out) {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csv = new CsvWriter(writer);
+        }
+
+        @Override
+        public void start(ResultSetMetaData metaData) throws SQLException, IOException {
+            columns = metaData.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                csv.field(metaData.getColumnLabel(i));
+            }
+            csv.endRecord();
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columns; i++) {
+                Object value = value(rs, i);
+                csv.field(value instanceof BigDecimal decimal ? decimal.toPlainString()
+                        : value == null ? null : value.toString());
+            }
+            csv.endRecord();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /** One JSON object per line, keyed by column label. */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator json;
+        private String[] labels;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            json = objectMapper.getFactory().createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start(ResultSetMetaData metaData) throws SQLException {
+            labels = new String[metaData.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+            }
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                json.writeFieldName(labels[i]);
+                Object value = value(rs, i + 1);
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    json.writeNumber(decimal);
+                } else if (value instanceof Long || value instanceof Integer) {
+                    json.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Boolean bool) {
+                    json.writeBoolean(bool);
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process admission control for the authentication endpoints, with one token bucket per
+ * client IP and one per username. Idle buckets are evicted so memory stays bounded; once a
+ * table is full, the least recently used tenth of it is dropped to make room, so a new key always
+ * gets its own bucket and a busy client cannot throttle anyone else.
+ */
+@Service
+public class AuthRateLimiter {
+
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.rate-limit.ip.capacity:20}")
+    private double ipCapacity;
+
+    @Value("${auth.rate-limit.ip.refill-per-second:1}")
+    private double ipRefillPerSecond;
+
+    @Value("${auth.rate-limit.username.capacity:5}")
+    private double usernameCapacity;
+
+    @Value("${auth.rate-limit.username.refill-per-second:0.1}")
+    private double usernameRefillPerSecond;
+
+    @Value("${auth.rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${auth.rate-limit.idle-seconds:600}")
+    private long idleSeconds;
+
+    private final ConcurrentHashMap<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> usernameBuckets = new ConcurrentHashMap<>();
+
+    public boolean tryAcquireForIp(String ip) {
+        return tryAcquire(ipBuckets, ip, ipCapacity, ipRefillPerSecond);
+    }
+
+    public boolean tryAcquireForUsername(String username) {
+        if (username == null) {
+            return true;
+        }
+        return tryAcquire(usernameBuckets, username, usernameCapacity, usernameRefillPerSecond);
+    }
+
+    private boolean tryAcquire(ConcurrentHashMap<String, TokenBucket> buckets, String key,
+                               double capacity, double refillPerSecond) {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                evictLeastRecentlyUsed(buckets);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    // Drops the least recently used tenth of a full table in one pass, so the sort is paid once
+    // per maxBuckets / 10 new keys rather than on every one
+    private void evictLeastRecentlyUsed(ConcurrentHashMap<String, TokenBucket> buckets) {
+        synchronized (buckets) {
+            if (buckets.size() < maxBuckets) {
+                return;
+            }
+            long[] lastAccess = buckets.values().stream().mapToLong(TokenBucket::getLastAccessNanos).toArray();
+            Arrays.sort(lastAccess);
+            int evict = Math.min(lastAccess.length, Math.max(1, maxBuckets / 10));
+            long cutoff = lastAccess[evict - 1];
+            buckets.values().removeIf(bucket -> bucket.getLastAccessNanos() <= cutoff);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleSeconds);
+        ipBuckets.values().removeIf(bucket -> bucket.getLastAccessNanos() < cutoff);
+        usernameBuckets.values().removeIf(bucket -> bucket.getLastAccessNanos() < cutoff);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecobazaar.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Estimates a product's carbon footprint (kg CO2e) from its attributes when the seller does not
+ * supply one. Implementations must be cheap and thread-safe: they run on every product create,
+ * on every imported row and across the whole catalog during a re-estimate.
+ */
+public interface CarbonEstimator {
+
+    /** Footprint for a product with the given eco rating (0 to 10) and price, at the column's scale. */
+    BigDecimal estimate(BigDecimal ecoRating, BigDecimal price);
+
+    /** Re-reads the estimator's factor tables, if it has any; existing estimates are left alone. */
+    default void reload() {
+    }
+}
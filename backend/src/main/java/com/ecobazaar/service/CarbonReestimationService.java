@@ -0,0 +1,130 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.event.CatalogChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recomputes every estimated carbon footprint after the factor tables change. The catalog is
+ * walked in id order in chunks, each chunk read and updated in its own short transaction, and
+ * only rows whose estimate actually moved are written. Footprints supplied by sellers are never
+ * touched.
+ */
+@Service
+public class CarbonReestimationService {
+
+    private static final String SELECT_CHUNK_SQL = "SELECT id, eco_rating, price, carbon_footprint FROM products "
+            + "WHERE carbon_footprint_estimated AND id > ? ORDER BY id LIMIT ?";
+
+    // Guarded on the flag so a seller edit racing the re-estimate wins
+    private static final String UPDATE_SQL = "UPDATE products SET carbon_footprint = ?, updated_at = now() "
+            + "WHERE id = ? AND carbon_footprint_estimated";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CarbonEstimator carbonEstimator;
+
+    @Autowired
+    private CartTotalsService cartTotals;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${carbon.reestimate.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+    private Timer reestimateTimer;
+
+    /** Outcome of a re-estimate: rows with an estimated footprint, and how many of them changed. */
+    public record Result(long scanned, long updated) {
+    }
+
+    private record Row(long id, BigDecimal footprint) {
+    }
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        reestimateTimer = Timer.builder("carbon.reestimate.duration").register(meterRegistry);
+    }
+
+    /** Reloads the estimator's factor tables and re-estimates the whole catalog with them. */
+    public Result reloadAndReestimate() {
+        carbonEstimator.reload();
+        return reestimateAll();
+    }
+
+    public Result reestimateAll() {
+        return reestimateTimer.record(() -> {
+            long scanned = 0;
+            long updated = 0;
+            long lastId = 0;
+            while (true) {
+                long after = lastId;
+                List<Long> changedIds = new ArrayList<>();
+                long[] counts = chunkTransaction.execute(status -> reestimateChunk(after, changedIds));
+                if (counts[0] == 0) {
+                    break;
+                }
+                // Carts holding the re-estimated products are recalculated once the chunk is committed
+                cartTotals.productsChanged(changedIds);
+                scanned += counts[0];
+                updated += counts[1];
+                lastId = counts[2];
+            }
+            if (updated > 0) {
+                // Too many ids to patch one by one; have the snapshot rebuilt instead
+                eventPublisher.publishEvent(new CatalogChangedEvent(null));
+            }
+            return new Result(scanned, updated);
+        });
+    }
+
+    /** Returns {rows read, rows updated, last id read} and adds the updated ids to {@code changedIds}. */
+    private long[] reestimateChunk(long afterId, List<Long> changedIds) {
+        long[] lastId = {afterId};
+        List<Row> changed = new ArrayList<>();
+        int read = jdbcTemplate.query(SELECT_CHUNK_SQL, rs -> {
+            int rows = 0;
+            while (rs.next()) {
+                rows++;
+                lastId[0] = rs.getLong("id");
+                BigDecimal estimate = carbonEstimator.estimate(rs.getBigDecimal("eco_rating"), rs.getBigDecimal("price"));
+                BigDecimal current = rs.getBigDecimal("carbon_footprint");
+                if (current == null || current.compareTo(estimate) != 0) {
+                    changed.add(new Row(lastId[0], estimate));
+                }
+            }
+            return rows;
+        }, afterId, chunkSize);
+        if (!changed.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, changed, changed.size(), (ps, row) -> {
+                ps.setBigDecimal(1, row.footprint());
+                ps.setLong(2, row.id());
+            });
+            changed.forEach(row -> changedIds.add(row.id()));
+        }
+        return new long[]{read, changed.size(), lastId[0]};
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.CartOperation;
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.entity.Product;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays a batch of cart operations against a buyer's current lines without touching them, so the
+ * batch is validated as a whole and then applied all or nothing. Shared by both cart modes: the
+ * caller turns the planned quantities into inserts, updates and deletes.
+ */
+final class CartPlan {
+
+    private enum Kind { ADD, SET, REMOVE }
+
+    private CartPlan() {
+    }
+
+    /** Products a batch needs: every product added plus the products of every line it names. */
+    static Set<Long> productIds(Map<Long, Long> lineProducts, List<CartOperation> operations) {
+        Set<Long> ids = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getProductId() != null) {
+                ids.add(operation.getProductId());
+            }
+            Long lineProduct = operation.getCartItemId() == null ? null : lineProducts.get(operation.getCartItemId());
+            if (lineProduct != null) {
+                ids.add(lineProduct);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The quantity of every line by productId once the batch has run.
+     *
+     * @param lineProducts productId of each current line, by line id
+     * @param current      quantity of each current line, by productId
+     * @param products     the products named by {@link #productIds}; missing entries no longer exist
+     * @throws IllegalArgumentException naming the first operation that cannot be applied
+     */
+    static Map<Long, Integer> plan(Map<Long, Long> lineProducts, Map<Long, Integer> current,
+                                   List<CartOperation> operations, Map<Long, ProductDTO> products) {
+        Map<Long, Integer> planned = new LinkedHashMap<>(current);
+        for (int i = 0; i < operations.size(); i++) {
+            CartOperation operation = operations.get(i);
+            String prefix = "Operation " + (i + 1) + ": ";
+            Kind kind = kind(operation, prefix);
+            if (kind == Kind.ADD) {
+                requireQuantity(operation, prefix);
+                if (operation.getProductId() == null) {
+                    throw new IllegalArgumentException(prefix + "productId is required");
+                }
+                ProductDTO product = products.get(operation.getProductId());
+                if (product == null) {
+                    throw new IllegalArgumentException(prefix + "Product not found");
+                }
+                if (!Product.Status.APPROVED.name().equals(product.getStatus())) {
+                    throw new IllegalArgumentException(prefix + "Product is not available for purchase");
+                }
+                planned.merge(operation.getProductId(), operation.getQuantity(), Integer::sum);
+                continue;
+            }
+            if (operation.getCartItemId() == null) {
+                throw new IllegalArgumentException(prefix + "cartItemId is required");
+            }
+            Long productId = lineProducts.get(operation.getCartItemId());
+            if (productId == null || !planned.containsKey(productId)) {
+                throw new IllegalArgumentException(prefix + "Cart item not found");
+            }
+            if (kind == Kind.SET) {
+                requireQuantity(operation, prefix);
+                planned.put(productId, operation.getQuantity());
+            } else {
+                planned.remove(productId);
+            }
+        }
+
+        // Stock is checked on the final quantities, so a batch may lower a line and raise it again
+        for (Map.Entry<Long, Integer> line : planned.entrySet()) {
+            if (line.getValue().equals(current.get(line.getKey()))) {
+                continue;
+            }
+            ProductDTO product = products.get(line.getKey());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + line.getKey());
+            }
+            if (product.getQuantity() < line.getValue()) {
+                throw new IllegalArgumentException("Insufficient stock for " + product.getName()
+                        + ". Available: " + product.getQuantity());
+            }
+        }
+        return planned;
+    }
+
+    private static Kind kind(CartOperation operation, String prefix) {
+        try {
+            return Kind.valueOf(String.valueOf(operation.getOp()).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(prefix + "Unknown operation: " + operation.getOp());
+        }
+    }
+
+    private static void requireQuantity(CartOperation operation, String prefix) {
+        if (operation.getQuantity() == null || operation.getQuantity() < 1) {
+            throw new IllegalArgumentException(prefix + "Quantity must be at least 1");
+        }
+    }
+}
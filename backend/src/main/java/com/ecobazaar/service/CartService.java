@@ -1,17 +1,23 @@
 package com.ecobazaar.service;
 
 import com.ecobazaar.dto.CartItemDTO;
+import com.ecobazaar.dto.CartOperation;
+import com.ecobazaar.dto.CartSummaryDTO;
+import com.ecobazaar.dto.ProductDTO;
 import com.ecobazaar.entity.CartItem;
 import com.ecobazaar.entity.Product;
 import com.ecobazaar.repository.CartItemRepository;
 import com.ecobazaar.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,70 +30,125 @@ public class CartService {
     @Autowired
     private ProductRepository productRepository;
 
+    // In write-behind mode every cart operation is served from memory and flushed later
+    @Autowired
+    private CartStore cartStore;
+
+    // Totals for the cart summary; every database-mode write below updates them before it commits
+    @Autowired
+    private CartTotalsService cartTotals;
+
+    // When enabled, each line's units are held for the buyer and other buyers' holds reduce the stock on offer
+    @Autowired
+    private StockReservationService reservations;
+
+    @Value("${cart.update.max-operations:100}")
+    private int maxOperations;
+
     public CartItemDTO addToCart(Long buyerId, Long productId, Integer quantity) {
-        // Check if product exists and is approved
-        Product product = productRepository.findById(productId)
+        // The upsert is native SQL, so CartItem's @Min(1) never sees a new line
+        if (quantity == null || quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        return cartStore.isEnabled()
+            ? cartStore.addToCart(buyerId, productId, quantity)
+            : upsertLine(buyerId, productId, quantity);
+    }
+
+    private CartItemDTO upsertLine(Long buyerId, Long productId, Integer quantity) {
+        cartItemRepository.lockCart(buyerId);
+        // Insert or increment in one statement
+        List<Object[]> line = cartItemRepository.upsertLine(buyerId, productId, quantity);
+        if (!line.isEmpty()) {
+            CartItemDTO dto = convertToDTO(line.get(0));
+            if (reservations.isEnabled() && !reservations.hold(buyerId, productId, dto.getQuantity())) {
+                // Rolls the increment back with the rest of the transaction
+                throw new RuntimeException("Insufficient stock. Available: " + available(productId, buyerId));
+            }
+            // Only a new line ends up holding exactly the units just added
+            cartTotals.lineChanged(buyerId, productId, quantity, dto.getQuantity().equals(quantity) ? 1 : 0);
+            return dto;
+        }
+
+        // Refused: read the product only to say why
+        Object[] row = cartItemRepository.findProductWithCartLine(productId, buyerId).stream()
+            .findFirst()
             .orElseThrow(() -> new RuntimeException("Product not found"));
+        Product product = (Product) row[0];
         
         if (product.getStatus() != Product.Status.APPROVED) {
             throw new RuntimeException("Product is not available for purchase");
         }
 
-        if (product.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
-        }
+        throw new RuntimeException("Insufficient stock. Available: " + available(product, buyerId));
+    }
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository.findByBuyerIdAndProductId(buyerId, productId);
-        
-        CartItem cartItem;
-        if (existingItem.isPresent()) {
-            cartItem = existingItem.get();
-            int newQuantity = cartItem.getQuantity() + quantity;
-            if (product.getQuantity() < newQuantity) {
-                throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
-            }
-            cartItem.setQuantity(newQuantity);
-        } else {
-            cartItem = new CartItem(buyerId, productId, quantity);
-        }
+    private int available(Long productId, Long buyerId) {
+        return productRepository.findById(productId)
+            .map(product -> available(product, buyerId))
+            .orElse(0);
+    }
 
-        cartItem = cartItemRepository.save(cartItem);
-        return convertToDTO(cartItem, product);
+    private int available(Product product, Long buyerId) {
+        return reservations.isEnabled()
+            ? reservations.available(product.getId(), product.getQuantity(), buyerId)
+            : product.getQuantity();
     }
 
+    @Transactional(readOnly = true)
     public List<CartItemDTO> getCartItems(Long buyerId) {
-        List<CartItem> cartItems = cartItemRepository.findByBuyerId(buyerId);
-        return cartItems.stream()
-            .map(item -> {
-                Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-                return convertToDTO(item, product);
-            })
-            .collect(Collectors.toList());
+        if (cartStore.isEnabled()) {
+            return cartStore.getCartItems(buyerId);
+        }
+        return cartItemRepository.findCartDtosByBuyerId(buyerId);
+    }
+
+    @Transactional(readOnly = true)
+    public CartSummaryDTO getCartSummary(Long buyerId) {
+        if (cartStore.isEnabled()) {
+            return CartTotalsService.summarize(cartStore.getCartItems(buyerId));
+        }
+        return cartTotals.get(buyerId);
     }
 
     public CartItemDTO updateCartItem(Long buyerId, Long cartItemId, Integer quantity) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-            .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        return cartStore.isEnabled()
+            ? cartStore.updateCartItem(buyerId, cartItemId, quantity)
+            : updateLine(buyerId, cartItemId, quantity);
+    }
 
-        if (!cartItem.getBuyerId().equals(buyerId)) {
-            throw new RuntimeException("Unauthorized access to cart item");
-        }
+    private CartItemDTO updateLine(Long buyerId, Long cartItemId, Integer quantity) {
+        cartItemRepository.lockCart(buyerId);
 
-        Product product = productRepository.findById(cartItem.getProductId())
-            .orElseThrow(() -> new RuntimeException("Product not found"));
+        // Scoped to the buyer, so another buyer's line reads as not found
+        Object[] row = cartItemRepository.findWithProduct(cartItemId, buyerId).stream()
+            .findFirst()
+            .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        CartItem cartItem = (CartItem) row[0];
+        Product product = (Product) row[1];
 
-        if (product.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
+        if (product.getQuantity() < quantity
+                || reservations.isEnabled() && !reservations.hold(buyerId, product.getId(), quantity)) {
+            throw new RuntimeException("Insufficient stock. Available: " + available(product, buyerId));
         }
 
+        int previous = cartItem.getQuantity();
         cartItem.setQuantity(quantity);
         cartItem = cartItemRepository.save(cartItem);
+        cartTotals.lineChanged(buyerId, product.getId(), quantity - previous, 0);
         return convertToDTO(cartItem, product);
     }
 
     public void removeFromCart(Long buyerId, Long cartItemId) {
+        if (cartStore.isEnabled()) {
+            cartStore.removeFromCart(buyerId, cartItemId);
+        } else {
+            removeLine(buyerId, cartItemId);
+        }
+    }
+
+    private void removeLine(Long buyerId, Long cartItemId) {
+        cartItemRepository.lockCart(buyerId);
         CartItem cartItem = cartItemRepository.findById(cartItemId)
             .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
@@ -96,10 +157,101 @@ public class CartService {
         }
 
         cartItemRepository.delete(cartItem);
+        if (reservations.isEnabled()) {
+            reservations.release(buyerId, List.of(cartItem.getProductId()));
+        }
+        cartTotals.lineChanged(buyerId, cartItem.getProductId(), -cartItem.getQuantity(), -1);
+    }
+
+    /**
+     * Applies a batch of add/set/remove operations in order, all or nothing, and returns the
+     * updated cart. The buyer's lines and every product involved are read once each.
+     */
+    public List<CartItemDTO> updateCart(Long buyerId, List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No cart operations given");
+        }
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("At most " + maxOperations + " cart operations per request");
+        }
+        return cartStore.isEnabled()
+            ? cartStore.updateCart(buyerId, operations)
+            : applyOperations(buyerId, operations);
+    }
+
+    private List<CartItemDTO> applyOperations(Long buyerId, List<CartOperation> operations) {
+        // The plan is computed from the lines read here, so no other write may change them until commit
+        cartItemRepository.lockCart(buyerId);
+        List<CartItem> lines = cartItemRepository.findByBuyerId(buyerId);
+        Map<Long, CartItem> linesByProduct = new HashMap<>();
+        Map<Long, Long> lineProducts = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItem line : lines) {
+            linesByProduct.put(line.getProductId(), line);
+            lineProducts.put(line.getId(), line.getProductId());
+            quantities.put(line.getProductId(), line.getQuantity());
+        }
+        Map<Long, ProductDTO> products = productRepository.findAllById(CartPlan.productIds(lineProducts, operations))
+            .stream()
+            .collect(Collectors.toMap(Product::getId, ProductService::convertToDTO));
+
+        Map<Long, Integer> planned = CartPlan.plan(lineProducts, quantities, operations, products);
+
+        // A product is either kept or removed, so the inserts can never collide with the deletes
+        List<CartItem> removed = new ArrayList<>();
+        for (CartItem line : lines) {
+            if (!planned.containsKey(line.getProductId())) {
+                removed.add(line);
+            }
+        }
+        List<CartItem> added = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        planned.forEach((productId, quantity) -> {
+            CartItem line = linesByProduct.get(productId);
+            if (line == null) {
+                added.add(new CartItem(buyerId, productId, quantity));
+                changed.add(productId);
+            } else if (!line.getQuantity().equals(quantity)) {
+                line.setQuantity(quantity);
+                changed.add(productId);
+            }
+        });
+        if (reservations.isEnabled()) {
+            reservations.release(buyerId, removed.stream().map(CartItem::getProductId).toList());
+            for (Long productId : changed) {
+                if (!reservations.hold(buyerId, productId, planned.get(productId))) {
+                    ProductDTO product = products.get(productId);
+                    throw new IllegalArgumentException("Insufficient stock for " + product.getName()
+                        + ". Available: " + reservations.available(productId, product.getQuantity(), buyerId));
+                }
+            }
+        }
+        cartItemRepository.deleteAll(removed);
+        cartItemRepository.saveAll(added);
+
+        // The recalculation flushes the changes above as JDBC batches before reading the lines
+        cartTotals.recalculate(buyerId);
+        return cartItemRepository.findCartDtosByBuyerId(buyerId);
     }
 
     public void clearCart(Long buyerId) {
-        cartItemRepository.deleteByBuyerId(buyerId);
+        if (cartStore.isEnabled()) {
+            cartStore.clearCart(buyerId);
+        } else {
+            cartItemRepository.lockCart(buyerId);
+            cartItemRepository.deleteByBuyerId(buyerId);
+            if (reservations.isEnabled()) {
+                reservations.releaseAll(buyerId);
+            }
+            cartTotals.clear(buyerId);
+        }
+    }
+
+    // Columns as returned by CartItemRepository.upsertLine
+    private CartItemDTO convertToDTO(Object[] line) {
+        return new CartItemDTO(((Number) line[0]).longValue(), ((Number) line[1]).longValue(), (String) line[2],
+            (String) line[3], (BigDecimal) line[4], (BigDecimal) line[5], (BigDecimal) line[6],
+            ((Number) line[7]).intValue(), (BigDecimal) line[8], (BigDecimal) line[9]);
     }
 
     private CartItemDTO convertToDTO(CartItem cartItem, Product product) {
@@ -0,0 +1,605 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.CartItemDTO;
+import com.ecobazaar.dto.CartOperation;
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.entity.CartItem;
+import com.ecobazaar.entity.Product;
+import com.ecobazaar.repository.CartItemRepository;
+import com.ecobazaar.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind cart mode. Once touched, a buyer's cart is held in memory and cart writes
+ * only change that copy; dirty carts are written to cart_items in coalesced JDBC batches on an
+ * interval, before they are evicted and at shutdown. Checkout flushes the buyer's cart and keeps it
+ * locked until the order has committed, so it always reads exactly the cart the buyer sees.
+ *
+ * <p>Carts idle for longer than the idle timeout are dropped after flushing, and the store is
+ * trimmed back to its size limit by least recent use on every pass. While enabled this node must
+ * be the only writer of cart_items.
+ */
+@Service
+public class CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CartStore.class);
+
+    private static final String UPSERT_SQL = "INSERT INTO cart_items (id, buyer_id, product_id, quantity, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET quantity = EXCLUDED.quantity, updated_at = EXCLUDED.updated_at";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE id = ?";
+
+    // Line ids come from the CartItem sequence in the same blocks Hibernate's pooled optimizer uses:
+    // each nextval value v reserves (v - ID_BLOCK_SIZE, v]
+    private static final String NEXT_ID_BLOCK_SQL = "SELECT nextval('cart_items_seq')";
+    private static final int ID_BLOCK_SIZE = 50;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CartTotalsService cartTotals;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cart.write-behind.idle-seconds:900}")
+    private long idleSeconds;
+
+    @Value("${cart.write-behind.max-carts:100000}")
+    private int maxCarts;
+
+    private final ConcurrentHashMap<Long, BuyerCart> carts = new ConcurrentHashMap<>();
+    private final AtomicInteger dirtyCarts = new AtomicInteger();
+
+    private final Object idLock = new Object();
+    private long nextId = 1;
+    private long lastId = 0;
+
+    private TransactionTemplate flushTransaction;
+    private Timer flushLagTimer;
+    private Timer flushTimer;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    void init() {
+        flushTransaction = new TransactionTemplate(transactionManager);
+        flushLagTimer = Timer.builder("cart.flush.lag").register(meterRegistry);
+        flushTimer = Timer.builder("cart.flush.duration").register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("cart.flush.batch.size").baseUnit("rows").register(meterRegistry);
+        Gauge.builder("cart.store.size", carts, Map::size).register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirtyCarts, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* ================= CART OPERATIONS ================= */
+
+    // The JDBC flush bypasses CartItem's @Min(1), so lines are checked before they change
+    private static void requireQuantity(Integer quantity) {
+        if (quantity == null || quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+    }
+
+    public CartItemDTO addToCart(Long buyerId, Long productId, Integer quantity) {
+        requireQuantity(quantity);
+        ProductDTO product = findProduct(productId);
+        if (product == null) {
+            throw new RuntimeException("Product not found");
+        }
+
+        if (!Product.Status.APPROVED.name().equals(product.getStatus())) {
+            throw new RuntimeException("Product is not available for purchase");
+        }
+
+        if (product.getQuantity() < quantity) {
+            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
+        }
+
+        BuyerCart cart = lock(buyerId);
+        try {
+            Line line = cart.lines.get(productId);
+            if (line != null) {
+                int newQuantity = line.quantity + quantity;
+                if (product.getQuantity() < newQuantity) {
+                    throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
+                }
+                line.quantity = newQuantity;
+            } else {
+                line = new Line(nextId(), productId, quantity, LocalDateTime.now());
+                cart.lines.put(productId, line);
+            }
+            cart.changed(line);
+            return convertToDTO(line.id, productId, line.quantity, product);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    public List<CartItemDTO> getCartItems(Long buyerId) {
+        List<Line> lines;
+        BuyerCart cart = lock(buyerId);
+        try {
+            lines = new ArrayList<>(cart.lines.size());
+            for (Line line : cart.lines.values()) {
+                lines.add(new Line(line.id, line.productId, line.quantity, line.createdAt));
+            }
+        } finally {
+            cart.lock.unlock();
+        }
+
+        Map<Long, ProductDTO> products = findProducts(lines.stream().map(line -> line.productId).toList());
+
+        // Lines whose product has since been deleted are left out, as in the joined cart query
+        lines.sort(Comparator.comparingLong(line -> line.id));
+        List<CartItemDTO> items = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            ProductDTO product = products.get(line.productId);
+            if (product != null) {
+                items.add(convertToDTO(line.id, line.productId, line.quantity, product));
+            }
+        }
+        return items;
+    }
+
+    public CartItemDTO updateCartItem(Long buyerId, Long cartItemId, Integer quantity) {
+        requireQuantity(quantity);
+        BuyerCart cart = lock(buyerId);
+        try {
+            Line line = cart.find(cartItemId);
+            ProductDTO product = line == null ? null : findProduct(line.productId);
+            if (product == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+
+            if (product.getQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
+            }
+
+            line.quantity = quantity;
+            cart.changed(line);
+            return convertToDTO(line.id, line.productId, line.quantity, product);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    public void removeFromCart(Long buyerId, Long cartItemId) {
+        BuyerCart cart = lock(buyerId);
+        try {
+            Line line = cart.find(cartItemId);
+            if (line == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+            cart.remove(line);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    public List<CartItemDTO> updateCart(Long buyerId, List<CartOperation> operations) {
+        BuyerCart cart = lock(buyerId);
+        try {
+            Map<Long, Long> lineProducts = new HashMap<>();
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (Line line : cart.lines.values()) {
+                lineProducts.put(line.id, line.productId);
+                quantities.put(line.productId, line.quantity);
+            }
+            Map<Long, ProductDTO> products = findProducts(CartPlan.productIds(lineProducts, operations));
+
+            Map<Long, Integer> planned = CartPlan.plan(lineProducts, quantities, operations, products);
+
+            for (Line line : new ArrayList<>(cart.lines.values())) {
+                if (!planned.containsKey(line.productId)) {
+                    cart.remove(line);
+                }
+            }
+            for (Map.Entry<Long, Integer> entry : planned.entrySet()) {
+                Line line = cart.lines.get(entry.getKey());
+                if (line == null) {
+                    line = new Line(nextId(), entry.getKey(), entry.getValue(), LocalDateTime.now());
+                    cart.lines.put(entry.getKey(), line);
+                } else if (line.quantity == entry.getValue()) {
+                    continue;
+                }
+                line.quantity = entry.getValue();
+                cart.changed(line);
+            }
+        } finally {
+            cart.lock.unlock();
+        }
+        return getCartItems(buyerId);
+    }
+
+    public void clearCart(Long buyerId) {
+        BuyerCart cart = lock(buyerId);
+        try {
+            for (Line line : new ArrayList<>(cart.lines.values())) {
+                cart.remove(line);
+            }
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code placeOrder} against the buyer's flushed cart. The cart stays locked until it
+     * returns, so {@code placeOrder} must commit its own transaction; on success the order has
+     * consumed every line and the in-memory cart is emptied to match.
+     */
+    public <T> T checkout(Long buyerId, Supplier<T> placeOrder) {
+        if (!enabled) {
+            return placeOrder.get();
+        }
+        BuyerCart cart = lock(buyerId);
+        try {
+            if (cart.dirty) {
+                write(List.of(cart));
+            }
+            T result = placeOrder.get();
+            cart.lines.clear();
+            return result;
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    /* ================= FLUSHING ================= */
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flushAndEvict() {
+        if (!enabled) {
+            return;
+        }
+        flushDirty();
+        evictIdle();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (enabled) {
+            flushDirty();
+        }
+    }
+
+    /**
+     * Writes every dirty cart, {@code batchSize} rows per transaction. Carts in a batch stay locked
+     * until it commits, so each cart's writes reach the database in order; carts that are busy are
+     * left for the next pass rather than waited for.
+     */
+    synchronized void flushDirty() {
+        List<BuyerCart> batch = new ArrayList<>();
+        int rows = 0;
+        for (BuyerCart cart : carts.values()) {
+            if (!cart.dirty || !cart.lock.tryLock()) {
+                continue;
+            }
+            if (!cart.dirty || cart.evicted) {
+                cart.lock.unlock();
+                continue;
+            }
+            batch.add(cart);
+            rows += cart.pendingRows();
+            if (rows >= batchSize) {
+                flushBatch(batch);
+                rows = 0;
+            }
+        }
+        flushBatch(batch);
+    }
+
+    /** Writes a batch of locked carts, then unlocks and clears it. */
+    private void flushBatch(List<BuyerCart> batch) {
+        try {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                write(batch);
+            } catch (DataAccessException e) {
+                // One bad cart fails the whole batch; replay it cart by cart so the rest still land
+                for (BuyerCart cart : batch) {
+                    try {
+                        write(List.of(cart));
+                    } catch (DataAccessException cartFailure) {
+                        log.warn("Could not flush cart of buyer {}; keeping it dirty", cart.buyerId, cartFailure);
+                    }
+                }
+            }
+        } finally {
+            for (BuyerCart cart : batch) {
+                cart.lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    /** Writes the pending changes of locked carts in one transaction and marks them clean. */
+    private void write(List<BuyerCart> batch) {
+        List<Long> deletes = new ArrayList<>();
+        List<Object[]> upserts = new ArrayList<>();
+        for (BuyerCart cart : batch) {
+            deletes.addAll(cart.removedIds);
+            for (Line line : cart.lines.values()) {
+                if (line.dirty) {
+                    upserts.add(new Object[] {line.id, cart.buyerId, line.productId, line.quantity,
+                            Timestamp.valueOf(line.createdAt), Timestamp.valueOf(line.updatedAt)});
+                }
+            }
+        }
+        flushTimer.record(() -> flushTransaction.executeWithoutResult(status -> {
+            // Deletes go first so a product removed and added again never holds two rows
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes, deletes.size(), (ps, id) -> ps.setLong(1, id));
+            }
+            if (!upserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+            }
+            // Summaries come from memory here; stored totals would no longer match these lines
+            cartTotals.forget(batch.stream().map(cart -> cart.buyerId).toList());
+        }));
+        batchSizeSummary.record(deletes.size() + upserts.size());
+        long now = System.nanoTime();
+        for (BuyerCart cart : batch) {
+            flushLagTimer.record(now - cart.dirtySinceNanos, TimeUnit.NANOSECONDS);
+            cart.flushed();
+        }
+    }
+
+    /** Drops carts idle past the timeout, then the least recently used ones above the size limit. */
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleSeconds);
+        int excess = carts.size() - maxCarts;
+        if (excess > 0) {
+            long[] lastAccess = carts.values().stream().mapToLong(cart -> cart.lastAccessNanos).toArray();
+            Arrays.sort(lastAccess);
+            cutoff = Math.max(cutoff, lastAccess[excess - 1] + 1);
+        }
+        for (BuyerCart cart : carts.values()) {
+            if (cart.lastAccessNanos >= cutoff || !cart.lock.tryLock()) {
+                continue;
+            }
+            try {
+                // Dirty carts are kept until a flush succeeds, so nothing is lost on eviction
+                if (!cart.dirty && cart.lastAccessNanos < cutoff) {
+                    cart.evicted = true;
+                    carts.remove(cart.buyerId, cart);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    /* ================= INTERNALS ================= */
+
+    /** The buyer's cart, loaded on first use and locked; callers must unlock it. */
+    private BuyerCart lock(Long buyerId) {
+        while (true) {
+            BuyerCart cart = carts.get(buyerId);
+            if (cart == null) {
+                BuyerCart loaded = load(buyerId);
+                cart = carts.putIfAbsent(buyerId, loaded);
+                if (cart == null) {
+                    cart = loaded;
+                } else if (loaded.dirty) {
+                    dirtyCarts.decrementAndGet();
+                }
+            }
+            cart.lock.lock();
+            if (!cart.evicted) {
+                cart.lastAccessNanos = System.nanoTime();
+                return cart;
+            }
+            // Evicted after we found it; its changes are in the database, so load it again
+            cart.lock.unlock();
+        }
+    }
+
+    private BuyerCart load(Long buyerId) {
+        BuyerCart cart = new BuyerCart(buyerId);
+        List<CartItem> items = cartItemRepository.findByBuyerId(buyerId);
+        items.sort(Comparator.comparing(CartItem::getId));
+        for (CartItem item : items) {
+            Line line = cart.lines.get(item.getProductId());
+            if (line == null) {
+                cart.lines.put(item.getProductId(),
+                        new Line(item.getId(), item.getProductId(), item.getQuantity(), item.getCreatedAt()));
+            } else {
+                // Older rows may hold the same product twice; fold them into the first line
+                line.quantity += item.getQuantity();
+                cart.changed(line);
+                cart.removedIds.add(item.getId());
+            }
+        }
+        return cart;
+    }
+
+    /** Products by id from the snapshot; anything it does not hold is read in one query. */
+    private Map<Long, ProductDTO> findProducts(Collection<Long> productIds) {
+        Map<Long, ProductDTO> products = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long productId : productIds) {
+            ProductDTO product = catalogSnapshotService.findApproved(productId);
+            if (product != null) {
+                products.put(productId, product);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                products.put(product.getId(), ProductService.convertToDTO(product));
+            }
+        }
+        return products;
+    }
+
+    private ProductDTO findProduct(Long productId) {
+        ProductDTO product = catalogSnapshotService.findApproved(productId);
+        if (product != null) {
+            return product;
+        }
+        return productRepository.findById(productId).map(ProductService::convertToDTO).orElse(null);
+    }
+
+    private long nextId() {
+        synchronized (idLock) {
+            if (nextId > lastId) {
+                long hi = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL, Long.class);
+                nextId = hi - ID_BLOCK_SIZE + 1;
+                lastId = hi;
+            }
+            return nextId++;
+        }
+    }
+
+    private static CartItemDTO convertToDTO(Long id, Long productId, int quantity, ProductDTO product) {
+        BigDecimal units = BigDecimal.valueOf(quantity);
+        BigDecimal carbon = product.getCarbonFootprint();
+        return new CartItemDTO(id, productId, product.getName(), product.getImageUrl(), product.getPrice(),
+                product.getEcoRating(), carbon, quantity, product.getPrice().multiply(units),
+                carbon != null ? carbon.multiply(units) : null);
+    }
+
+    /** One buyer's cart. Every field is guarded by {@link #lock} except {@link #lastAccessNanos}. */
+    private final class BuyerCart {
+
+        final Long buyerId;
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, Line> lines = new LinkedHashMap<>();
+        final Set<Long> removedIds = new LinkedHashSet<>();
+        volatile long lastAccessNanos = System.nanoTime();
+        boolean dirty;
+        long dirtySinceNanos;
+        boolean evicted;
+
+        BuyerCart(Long buyerId) {
+            this.buyerId = buyerId;
+        }
+
+        Line find(Long lineId) {
+            for (Line line : lines.values()) {
+                if (line.id == lineId) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        void changed(Line line) {
+            line.dirty = true;
+            line.updatedAt = LocalDateTime.now();
+            markDirty();
+        }
+
+        void remove(Line line) {
+            lines.remove(line.productId);
+            removedIds.add(line.id);
+            markDirty();
+        }
+
+        int pendingRows() {
+            int rows = removedIds.size();
+            for (Line line : lines.values()) {
+                if (line.dirty) {
+                    rows++;
+                }
+            }
+            return rows;
+        }
+
+        void flushed() {
+            removedIds.clear();
+            for (Line line : lines.values()) {
+                line.dirty = false;
+            }
+            if (dirty) {
+                dirty = false;
+                dirtyCarts.decrementAndGet();
+            }
+        }
+
+        private void markDirty() {
+            if (!dirty) {
+                dirty = true;
+                dirtySinceNanos = System.nanoTime();
+                dirtyCarts.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Line {
+
+        final long id;
+        final Long productId;
+        int quantity;
+        final LocalDateTime createdAt;
+        LocalDateTime updatedAt;
+        boolean dirty;
+
+        Line(long id, Long productId, int quantity, LocalDateTime createdAt) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+    }
+}
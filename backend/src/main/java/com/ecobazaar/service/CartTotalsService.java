@@ -0,0 +1,139 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.CartItemDTO;
+import com.ecobazaar.dto.CartSummaryDTO;
+import com.ecobazaar.repository.CartItemRepository;
+import com.ecobazaar.repository.CartTotalsRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-buyer cart totals (units, lines, amount and carbon footprint) stored in cart_totals. Each
+ * database-mode cart write updates the buyer's row in its own transaction while holding the cart
+ * lock: single-line writes add their change, batches recompute the row from the lines. The row is
+ * created from the cart on the first write that finds it missing. Deleting a product or
+ * re-estimating its footprint recalculates every cart that holds it once that change has
+ * committed. A summary is then one primary-key read on any node.
+ *
+ * <p>Write-behind carts are summed from the in-memory cart instead, and their flushes drop the
+ * stored rows so that nothing stale is left behind if the mode is switched off.
+ */
+@Service
+public class CartTotalsService {
+
+    // Keeps IN lists well under the driver's bind parameter limit
+    private static final int RECALCULATE_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private CartTotalsRepository cartTotalsRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate recalculateTransaction;
+
+    @PostConstruct
+    void init() {
+        recalculateTransaction = new TransactionTemplate(transactionManager);
+        recalculateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** The buyer's stored totals, or totals computed from the cart when none are stored yet. */
+    public CartSummaryDTO get(Long buyerId) {
+        return cartTotalsRepository.findSummary(buyerId)
+            .orElseGet(() -> cartItemRepository.summarizeByBuyerId(buyerId));
+    }
+
+    /**
+     * Records a change of {@code units} to one line ({@code lines} is +1 for a new line, -1 for a
+     * removed one and 0 otherwise). Must be called after the change, holding the buyer's cart lock.
+     */
+    public void lineChanged(Long buyerId, Long productId, int units, int lines) {
+        if (cartTotalsRepository.addLine(buyerId, productId, units, lines) == 0) {
+            // No row yet (or the product is gone, in which case the row already leaves it out)
+            cartTotalsRepository.create(buyerId);
+        }
+    }
+
+    /** Recomputes the buyer's totals from the cart. Must be called holding the buyer's cart lock. */
+    public void recalculate(Long buyerId) {
+        if (cartTotalsRepository.recalculate(List.of(buyerId)) == 0) {
+            cartTotalsRepository.create(buyerId);
+        }
+    }
+
+    /** Must be called holding the buyer's cart lock. */
+    public void clear(Long buyerId) {
+        cartTotalsRepository.clear(buyerId);
+    }
+
+    /** Drops the stored totals of carts flushed from the write-behind store. */
+    public void forget(Collection<Long> buyerIds) {
+        if (!buyerIds.isEmpty()) {
+            cartTotalsRepository.deleteByBuyerIdIn(buyerIds);
+        }
+    }
+
+    /**
+     * Recalculates every cart holding one of the products, which were deleted or had their footprint
+     * changed. Inside a transaction this happens after it commits, so the carts are read with the
+     * change applied.
+     */
+    public void productsChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recalculateCartsHolding(ids);
+                }
+            });
+        } else {
+            recalculateCartsHolding(ids);
+        }
+    }
+
+    private void recalculateCartsHolding(List<Long> productIds) {
+        for (int start = 0; start < productIds.size(); start += RECALCULATE_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(start, Math.min(productIds.size(), start + RECALCULATE_CHUNK_SIZE));
+            recalculateTransaction.executeWithoutResult(status -> {
+                List<Long> buyerIds = cartTotalsRepository.lockCartsHolding(chunk);
+                for (int from = 0; from < buyerIds.size(); from += RECALCULATE_CHUNK_SIZE) {
+                    cartTotalsRepository.recalculate(
+                        buyerIds.subList(from, Math.min(buyerIds.size(), from + RECALCULATE_CHUNK_SIZE)));
+                }
+            });
+        }
+    }
+
+    /** Totals of a cart already in hand. */
+    public static CartSummaryDTO summarize(List<CartItemDTO> cart) {
+        int units = 0;
+        BigDecimal amount = BigDecimal.ZERO;
+        BigDecimal carbon = BigDecimal.ZERO;
+        for (CartItemDTO line : cart) {
+            units += line.getQuantity();
+            amount = amount.add(line.getSubtotal());
+            if (line.getCarbonFootprint() != null) {
+                carbon = carbon.add(line.getCarbonFootprint());
+            }
+        }
+        return new CartSummaryDTO(units, cart.size(), amount, carbon);
+    }
+}
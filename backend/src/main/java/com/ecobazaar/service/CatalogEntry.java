@@ -0,0 +1,88 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * An approved product as held by the in-memory catalog: the ready-to-serialize DTO plus the raw
+ * sort keys, kept at full precision so in-memory ordering matches the database keyset queries.
+ * The DTO is shared between requests and must not be modified after publication.
+ */
+public final class CatalogEntry {
+
+    static final Comparator<CatalogEntry> NEWEST_FIRST = Comparator
+            .comparing(CatalogEntry::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(CatalogEntry::getId, Comparator.reverseOrder());
+
+    static final Comparator<CatalogEntry> CHEAPEST_FIRST = Comparator
+            .comparing(CatalogEntry::getPrice)
+            .thenComparing(CatalogEntry::getId);
+
+    static final Comparator<CatalogEntry> GREENEST_FIRST = Comparator
+            .comparing(CatalogEntry::getEcoRating, Comparator.reverseOrder())
+            .thenComparing(CatalogEntry::getId, Comparator.reverseOrder());
+
+    private final long id;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final BigDecimal price;
+    private final BigDecimal ecoRating;
+    private final BigDecimal carbonFootprint;
+    private final ProductDTO product;
+
+    public CatalogEntry(long id, LocalDateTime createdAt, LocalDateTime updatedAt, BigDecimal price,
+                        BigDecimal ecoRating, BigDecimal carbonFootprint, ProductDTO product) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.price = price;
+        this.ecoRating = ecoRating;
+        this.carbonFootprint = carbonFootprint;
+        this.product = product;
+    }
+
+    public static CatalogEntry of(Product product, ProductDTO dto) {
+        return new CatalogEntry(product.getId(), product.getCreatedAt(), product.getUpdatedAt(), product.getPrice(),
+                product.getEcoRating(), product.getCarbonFootprint(), dto);
+    }
+
+    static Comparator<CatalogEntry> comparator(CatalogSort sort) {
+        return switch (sort) {
+            case NEWEST -> NEWEST_FIRST;
+            case PRICE -> CHEAPEST_FIRST;
+            case ECO -> GREENEST_FIRST;
+        };
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public BigDecimal getEcoRating() {
+        return ecoRating;
+    }
+
+    public BigDecimal getCarbonFootprint() {
+        return carbonFootprint;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+}
@@ -0,0 +1,255 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.FacetBucketDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Precomputed facet counts over the approved catalog for price, eco rating and carbon footprint.
+ *
+ * <p>Each axis is cut at configured edges into slots: one for missing values, one below the first
+ * edge, one exactly at each edge and one strictly between neighbouring edges (or above the last).
+ * Counts are kept for every combination of slots across the three axes, so a filter whose bounds
+ * sit on edges is answered exactly by summing cells instead of scanning products. Keeping the
+ * exact-edge slots separate is what makes both inclusive bounds representable. A bound between
+ * two edges is widened to the slot it falls in, so counts depending on it include that whole slot
+ * and are only an upper bound; {@link #approximateFacets} names the axes this applies to.
+ *
+ * <p>Facets are disjunctive: the counts for one axis honour the filters on the other two axes but
+ * not its own, so a UI can show how many products every alternative range would return.
+ */
+@Component
+public class CatalogFacetIndex implements CatalogIndex {
+
+    public static final String PRICE = "price";
+    public static final String ECO_RATING = "ecoRating";
+    public static final String CARBON_FOOTPRINT = "carbonFootprint";
+
+    @Value("${catalog.facets.price-edges:0,10,25,50,100,250,500}")
+    private String priceEdges;
+
+    @Value("${catalog.facets.eco-rating-edges:0,1,2,3,4,5,6,7,8,9}")
+    private String ecoRatingEdges;
+
+    @Value("${catalog.facets.carbon-footprint-edges:0,1,2,5,10}")
+    private String carbonFootprintEdges;
+
+    private Axis[] axes;
+
+    // Null until the first rebuild; replaced wholesale on rebuild, updated in place on patches
+    private volatile AtomicIntegerArray cells;
+
+    @PostConstruct
+    void init() {
+        axes = new Axis[]{
+                new Axis(PRICE, parseEdges(priceEdges), CatalogEntry::getPrice),
+                new Axis(ECO_RATING, parseEdges(ecoRatingEdges), CatalogEntry::getEcoRating),
+                new Axis(CARBON_FOOTPRINT, parseEdges(carbonFootprintEdges), CatalogEntry::getCarbonFootprint)
+        };
+    }
+
+    /* ================= QUERY ================= */
+
+    /**
+     * Facet counts per axis for products matching {@code filter} on the other axes, keyed by
+     * axis name in a stable order. The cost depends only on the number of edges, never on the
+     * size of the catalog.
+     */
+    public Map<String, List<FacetBucketDTO>> facets(CatalogFilter filter) {
+        int[][] ranges = new int[][]{
+                axes[0].slotRange(filter.getMinPrice(), filter.getMaxPrice()),
+                axes[1].slotRange(filter.getMinEcoRating(), filter.getMaxEcoRating()),
+                axes[2].slotRange(filter.getMinCarbonFootprint(), filter.getMaxCarbonFootprint())
+        };
+        AtomicIntegerArray current = cells;
+        long[][] slotCounts = current != null
+                ? countFromCells(current, ranges)
+                : new long[][]{new long[axes[0].slotCount()], new long[axes[1].slotCount()], new long[axes[2].slotCount()]};
+
+        Map<String, List<FacetBucketDTO>> facets = new LinkedHashMap<>();
+        for (int a = 0; a < axes.length; a++) {
+            facets.put(axes[a].name, axes[a].buckets(slotCounts[a]));
+        }
+        return facets;
+    }
+
+    /**
+     * Names of the axes whose {@link #facets} counts are upper bounds rather than exact for
+     * {@code filter}: those filtered by another axis with a bound between edges.
+     */
+    public List<String> approximateFacets(CatalogFilter filter) {
+        boolean[] offEdge = new boolean[]{
+                !axes[0].onEdges(filter.getMinPrice(), filter.getMaxPrice()),
+                !axes[1].onEdges(filter.getMinEcoRating(), filter.getMaxEcoRating()),
+                !axes[2].onEdges(filter.getMinCarbonFootprint(), filter.getMaxCarbonFootprint())
+        };
+        List<String> approximate = new ArrayList<>(axes.length);
+        for (int a = 0; a < axes.length; a++) {
+            for (int b = 0; b < axes.length; b++) {
+                if (b != a && offEdge[b]) {
+                    approximate.add(axes[a].name);
+                    break;
+                }
+            }
+        }
+        return approximate;
+    }
+
+    private long[][] countFromCells(AtomicIntegerArray current, int[][] ranges) {
+        int s0 = axes[0].slotCount();
+        int s1 = axes[1].slotCount();
+        int s2 = axes[2].slotCount();
+        long[][] counts = new long[][]{new long[s0], new long[s1], new long[s2]};
+        for (int i = 0; i < s0; i++) {
+            boolean in0 = i >= ranges[0][0] && i <= ranges[0][1];
+            for (int j = 0; j < s1; j++) {
+                boolean in1 = j >= ranges[1][0] && j <= ranges[1][1];
+                if (!in0 && !in1) {
+                    continue;
+                }
+                int base = (i * s1 + j) * s2;
+                for (int k = 0; k < s2; k++) {
+                    int count = current.get(base + k);
+                    if (count == 0) {
+                        continue;
+                    }
+                    boolean in2 = k >= ranges[2][0] && k <= ranges[2][1];
+                    if (in1 && in2) {
+                        counts[0][i] += count;
+                    }
+                    if (in0 && in2) {
+                        counts[1][j] += count;
+                    }
+                    if (in0 && in1) {
+                        counts[2][k] += count;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /* ================= MAINTENANCE ================= */
+
+    @Override
+    public void rebuild(CatalogSnapshot snapshot) {
+        AtomicIntegerArray rebuilt = new AtomicIntegerArray(axes[0].slotCount() * axes[1].slotCount() * axes[2].slotCount());
+        for (CatalogEntry entry : snapshot.entriesById()) {
+            rebuilt.incrementAndGet(cellOf(entry));
+        }
+        cells = rebuilt;
+    }
+
+    @Override
+    public void update(CatalogEntry before, CatalogEntry after) {
+        AtomicIntegerArray current = cells;
+        if (current == null) {
+            return;
+        }
+        int from = before == null ? -1 : cellOf(before);
+        int to = after == null ? -1 : cellOf(after);
+        if (from == to) {
+            return;
+        }
+        if (from >= 0) {
+            current.decrementAndGet(from);
+        }
+        if (to >= 0) {
+            current.incrementAndGet(to);
+        }
+    }
+
+    private int cellOf(CatalogEntry entry) {
+        return (axes[0].slotOf(entry) * axes[1].slotCount() + axes[1].slotOf(entry)) * axes[2].slotCount()
+                + axes[2].slotOf(entry);
+    }
+
+    private static BigDecimal[] parseEdges(String edges) {
+        BigDecimal[] parsed = Arrays.stream(edges.split(","))
+                .map(String::trim)
+                .map(BigDecimal::new)
+                .toArray(BigDecimal[]::new);
+        for (int i = 1; i < parsed.length; i++) {
+            if (parsed[i - 1].compareTo(parsed[i]) >= 0) {
+                throw new IllegalStateException("Facet edges must be strictly increasing: " + edges);
+            }
+        }
+        return parsed;
+    }
+
+    /* ================= AXIS ================= */
+
+    /**
+     * Slot layout for {@code k} edges: 0 = missing value, 1 = below the first edge,
+     * {@code 2i + 2} = exactly edge {@code i}, {@code 2i + 3} = strictly between edge {@code i}
+     * and the next one (or above the last edge).
+     */
+    private static final class Axis {
+
+        private final String name;
+        private final BigDecimal[] edges;
+        private final Function<CatalogEntry, BigDecimal> value;
+
+        Axis(String name, BigDecimal[] edges, Function<CatalogEntry, BigDecimal> value) {
+            this.name = name;
+            this.edges = edges;
+            this.value = value;
+        }
+
+        int slotCount() {
+            return 2 * edges.length + 2;
+        }
+
+        int slotOf(CatalogEntry entry) {
+            BigDecimal v = value.apply(entry);
+            return v == null ? 0 : slotOf(v);
+        }
+
+        int slotOf(BigDecimal v) {
+            int index = Arrays.binarySearch(edges, v, BigDecimal::compareTo);
+            return index >= 0 ? 2 * index + 2 : 2 * (-index - 1) + 1;
+        }
+
+        /**
+         * Inclusive slot range for the bounds. A bound on an edge maps to that edge's own slot; one
+         * between edges maps to the slot it falls in, which is then counted whole.
+         */
+        int[] slotRange(BigDecimal min, BigDecimal max) {
+            if (min == null && max == null) {
+                return new int[]{0, slotCount() - 1};
+            }
+            int low = min == null ? 1 : slotOf(min);
+            int high = max == null ? slotCount() - 1 : slotOf(max);
+            return new int[]{low, high};
+        }
+
+        /** Whether every given bound sits exactly on an edge, so {@link #slotRange} does not widen it. */
+        boolean onEdges(BigDecimal min, BigDecimal max) {
+            return (min == null || Arrays.binarySearch(edges, min, BigDecimal::compareTo) >= 0)
+                    && (max == null || Arrays.binarySearch(edges, max, BigDecimal::compareTo) >= 0);
+        }
+
+        /** Folds slots into display buckets {@code [edge i, edge i+1)}; empty outer buckets are omitted. */
+        List<FacetBucketDTO> buckets(long[] slots) {
+            List<FacetBucketDTO> buckets = new ArrayList<>(edges.length + 1);
+            if (slots[1] > 0) {
+                buckets.add(new FacetBucketDTO(null, edges[0], slots[1]));
+            }
+            for (int i = 0; i < edges.length; i++) {
+                BigDecimal to = i + 1 < edges.length ? edges[i + 1] : null;
+                buckets.add(new FacetBucketDTO(edges[i], to, slots[2 * i + 2] + slots[2 * i + 3]));
+            }
+            return buckets;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecobazaar.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional inclusive range filters over catalog entries. A {@code null} bound is unbounded.
+ */
+public final class CatalogFilter {
+
+    public static final CatalogFilter NONE = new CatalogFilter(null, null, null, null, null, null);
+
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final BigDecimal minEcoRating;
+    private final BigDecimal maxEcoRating;
+    private final BigDecimal minCarbonFootprint;
+    private final BigDecimal maxCarbonFootprint;
+
+    public CatalogFilter(BigDecimal minPrice, BigDecimal maxPrice, BigDecimal minEcoRating, BigDecimal maxEcoRating,
+                         BigDecimal minCarbonFootprint, BigDecimal maxCarbonFootprint) {
+        if (isInverted(minPrice, maxPrice) || isInverted(minEcoRating, maxEcoRating)
+                || isInverted(minCarbonFootprint, maxCarbonFootprint)) {
+            throw new IllegalArgumentException("Range filter minimum is greater than its maximum");
+        }
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.minEcoRating = minEcoRating;
+        this.maxEcoRating = maxEcoRating;
+        this.minCarbonFootprint = minCarbonFootprint;
+        this.maxCarbonFootprint = maxCarbonFootprint;
+    }
+
+    public boolean matches(CatalogEntry entry) {
+        return inRange(entry.getPrice(), minPrice, maxPrice)
+                && inRange(entry.getEcoRating(), minEcoRating, maxEcoRating)
+                && inRange(entry.getCarbonFootprint(), minCarbonFootprint, maxCarbonFootprint);
+    }
+
+    public boolean isEmpty() {
+        return minPrice == null && maxPrice == null && minEcoRating == null && maxEcoRating == null
+                && minCarbonFootprint == null && maxCarbonFootprint == null;
+    }
+
+    static boolean inRange(BigDecimal value, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private static boolean isInverted(BigDecimal min, BigDecimal max) {
+        return min != null && max != null && min.compareTo(max) > 0;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public BigDecimal getMinEcoRating() {
+        return minEcoRating;
+    }
+
+    public BigDecimal getMaxEcoRating() {
+        return maxEcoRating;
+    }
+
+    public BigDecimal getMinCarbonFootprint() {
+        return minCarbonFootprint;
+    }
+
+    public BigDecimal getMaxCarbonFootprint() {
+        return maxCarbonFootprint;
+    }
+}
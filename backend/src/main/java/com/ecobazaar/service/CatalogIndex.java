@@ -0,0 +1,18 @@
+package com.ecobazaar.service;
+
+/**
+ * A derived structure kept in step with the approved-catalog snapshot. Implementations are
+ * called by {@link CatalogSnapshotService} from a single writer thread at a time and must stay
+ * safe for concurrent readers while they are updated.
+ */
+public interface CatalogIndex {
+
+    /** Discards existing state and indexes every entry of the snapshot. */
+    void rebuild(CatalogSnapshot snapshot);
+
+    /**
+     * Applies one product change. {@code before} is null for a newly listed product,
+     * {@code after} is null for a product that was removed from the catalog.
+     */
+    void update(CatalogEntry before, CatalogEntry after);
+}
@@ -0,0 +1,261 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.ProductDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, point-in-time view of the approved catalog. Readers never lock: they grab the
+ * current instance and work against arrays that are never modified. Writers derive a new
+ * snapshot with {@link #apply}, which merges a batch of changes into copies of the arrays in a
+ * single pass per ordering.
+ *
+ * <p>The version is a fingerprint of the content, summed over every entry's id and last-modified
+ * time. It moves only when the listed products change, and any node holding the same products
+ * computes the same version, so ETags built from it agree across nodes and survive rebuilds.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<CatalogEntry> BY_ID = Comparator.comparingLong(CatalogEntry::getId);
+
+    private final long version;
+    private final long[] ids;
+    private final CatalogEntry[] byId;
+    private final CatalogEntry[] newest;
+    private final CatalogEntry[] cheapest;
+    private final CatalogEntry[] greenest;
+
+    private volatile List<ProductDTO> productList;
+
+    private CatalogSnapshot(long version, CatalogEntry[] byId, CatalogEntry[] newest,
+                            CatalogEntry[] cheapest, CatalogEntry[] greenest) {
+        this.version = version;
+        this.byId = byId;
+        this.newest = newest;
+        this.cheapest = cheapest;
+        this.greenest = greenest;
+        this.ids = new long[byId.length];
+        for (int i = 0; i < byId.length; i++) {
+            ids[i] = byId[i].getId();
+        }
+    }
+
+    public static CatalogSnapshot build(Collection<CatalogEntry> entries) {
+        CatalogEntry[] all = entries.toArray(new CatalogEntry[0]);
+        long version = 0;
+        for (CatalogEntry entry : all) {
+            version += fingerprint(entry);
+        }
+        return new CatalogSnapshot(version,
+                sorted(all, BY_ID),
+                sorted(all, CatalogEntry.NEWEST_FIRST),
+                sorted(all, CatalogEntry.CHEAPEST_FIRST),
+                sorted(all, CatalogEntry.GREENEST_FIRST));
+    }
+
+    /**
+     * Returns a new snapshot with the given products replaced. A {@code null} value removes the
+     * product (it was deleted or is no longer approved).
+     */
+    public CatalogSnapshot apply(Map<Long, CatalogEntry> changes) {
+        long[] changedIds = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        long newVersion = version;
+        for (long id : changedIds) {
+            CatalogEntry before = get(id);
+            if (before != null) {
+                newVersion -= fingerprint(before);
+            }
+        }
+        List<CatalogEntry> additions = new ArrayList<>(changes.size());
+        for (CatalogEntry entry : changes.values()) {
+            if (entry != null) {
+                additions.add(entry);
+                newVersion += fingerprint(entry);
+            }
+        }
+        CatalogEntry[] added = additions.toArray(new CatalogEntry[0]);
+
+        return new CatalogSnapshot(newVersion,
+                merge(byId, changedIds, added, BY_ID),
+                merge(newest, changedIds, added, CatalogEntry.NEWEST_FIRST),
+                merge(cheapest, changedIds, added, CatalogEntry.CHEAPEST_FIRST),
+                merge(greenest, changedIds, added, CatalogEntry.GREENEST_FIRST));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Well-mixed 64-bit hash of what identifies one listed revision of a product. Timestamps are
+    // taken at the database's microsecond precision, so every node hashes the same value.
+    static long fingerprint(CatalogEntry entry) {
+        LocalDateTime updatedAt = entry.getUpdatedAt();
+        long micros = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+        long h = entry.getId() * 0x9E3779B97F4A7C15L + micros;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    public int size() {
+        return byId.length;
+    }
+
+    public CatalogEntry get(long productId) {
+        int index = Arrays.binarySearch(ids, productId);
+        return index >= 0 ? byId[index] : null;
+    }
+
+    /** All approved products, newest first. Built once per snapshot and shared. */
+    public List<ProductDTO> products() {
+        List<ProductDTO> list = productList;
+        if (list == null) {
+            list = Arrays.stream(newest).map(CatalogEntry::getProduct).toList();
+            productList = list;
+        }
+        return list;
+    }
+
+    /** Entries in the given order, as an unmodifiable list view over the snapshot array. */
+    public List<CatalogEntry> entries(CatalogSort sort) {
+        return Collections.unmodifiableList(Arrays.asList(sortedArray(sort)));
+    }
+
+    /** Entries in ascending id order. */
+    public List<CatalogEntry> entriesById() {
+        return Collections.unmodifiableList(Arrays.asList(byId));
+    }
+
+    /**
+     * Up to {@code limit} entries in the given order that sort strictly after {@code after}
+     * (or from the start when it is {@code null}).
+     */
+    public List<CatalogEntry> page(CatalogSort sort, CatalogEntry after, int limit) {
+        CatalogEntry[] ordered = sortedArray(sort);
+        int start = 0;
+        if (after != null) {
+            int index = Arrays.binarySearch(ordered, after, CatalogEntry.comparator(sort));
+            start = index >= 0 ? index + 1 : -index - 1;
+        }
+        int end = Math.min(ordered.length, start + limit);
+        return start >= end ? List.of() : Arrays.asList(ordered).subList(start, end);
+    }
+
+    /** A filtered page; {@code resumeAfter} is set when the scan stopped on its budget rather than at the end. */
+    public record Page(List<CatalogEntry> entries, CatalogEntry resumeAfter) {
+    }
+
+    /**
+     * Like {@link #page(CatalogSort, CatalogEntry, int)} but only returning entries accepted by
+     * {@code filter}. A bound on the sort column is a binary search to where matches start and a
+     * stop once the sort key moves past it; other bounds are checked entry by entry, looking at
+     * no more than {@code maxScan} entries. When the budget runs out first the page may be short,
+     * and {@link Page#resumeAfter()} says where the next request should continue.
+     */
+    public Page page(CatalogSort sort, CatalogEntry after, int limit, CatalogFilter filter, int maxScan) {
+        if (filter.isEmpty()) {
+            return new Page(page(sort, after, limit), null);
+        }
+        CatalogEntry[] ordered = sortedArray(sort);
+        int start = 0;
+        if (after != null) {
+            int index = Arrays.binarySearch(ordered, after, CatalogEntry.comparator(sort));
+            start = index >= 0 ? index + 1 : -index - 1;
+        }
+        start = Math.max(start, firstInBound(sort, ordered, filter));
+        int end = (int) Math.min(ordered.length, (long) start + maxScan);
+        List<CatalogEntry> matches = new ArrayList<>(limit);
+        int i = start;
+        for (; i < end && matches.size() < limit; i++) {
+            CatalogEntry entry = ordered[i];
+            if (isPastBound(sort, entry, filter)) {
+                return new Page(matches, null);
+            }
+            if (filter.matches(entry)) {
+                matches.add(entry);
+            }
+        }
+        boolean budgetSpent = matches.size() < limit && i < ordered.length;
+        return new Page(matches, budgetSpent ? ordered[i - 1] : null);
+    }
+
+    // Index of the first entry not yet excluded by a bound on the sort column itself
+    private static int firstInBound(CatalogSort sort, CatalogEntry[] ordered, CatalogFilter filter) {
+        return switch (sort) {
+            case NEWEST -> 0;
+            case PRICE -> filter.getMinPrice() == null ? 0
+                    : lowerBound(ordered, entry -> entry.getPrice().compareTo(filter.getMinPrice()) >= 0);
+            case ECO -> filter.getMaxEcoRating() == null ? 0
+                    : lowerBound(ordered, entry -> entry.getEcoRating().compareTo(filter.getMaxEcoRating()) <= 0);
+        };
+    }
+
+    // First index whose entry satisfies a predicate that is false then true along the array
+    private static int lowerBound(CatalogEntry[] ordered, Predicate<CatalogEntry> reached) {
+        int low = 0;
+        int high = ordered.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (reached.test(ordered[mid])) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isPastBound(CatalogSort sort, CatalogEntry entry, CatalogFilter filter) {
+        return switch (sort) {
+            case NEWEST -> false;
+            case PRICE -> filter.getMaxPrice() != null && entry.getPrice().compareTo(filter.getMaxPrice()) > 0;
+            case ECO -> filter.getMinEcoRating() != null && entry.getEcoRating().compareTo(filter.getMinEcoRating()) < 0;
+        };
+    }
+
+    private CatalogEntry[] sortedArray(CatalogSort sort) {
+        return switch (sort) {
+            case NEWEST -> newest;
+            case PRICE -> cheapest;
+            case ECO -> greenest;
+        };
+    }
+
+    private static CatalogEntry[] sorted(CatalogEntry[] entries, Comparator<CatalogEntry> comparator) {
+        CatalogEntry[] copy = entries.clone();
+        Arrays.sort(copy, comparator);
+        return copy;
+    }
+
+    // Drops every entry whose id changed and merges the (unsorted) replacements in, in one pass
+    private static CatalogEntry[] merge(CatalogEntry[] current, long[] changedIds, CatalogEntry[] added,
+                                        Comparator<CatalogEntry> comparator) {
+        CatalogEntry[] additions = sorted(added, comparator);
+        CatalogEntry[] result = new CatalogEntry[current.length + additions.length];
+        int size = 0;
+        int next = 0;
+        for (CatalogEntry entry : current) {
+            if (Arrays.binarySearch(changedIds, entry.getId()) >= 0) {
+                continue;
+            }
+            while (next < additions.length && comparator.compare(additions[next], entry) < 0) {
+                result[size++] = additions[next++];
+            }
+            result[size++] = entry;
+        }
+        while (next < additions.length) {
+            result[size++] = additions[next++];
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+}
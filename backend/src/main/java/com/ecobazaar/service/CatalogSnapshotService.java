@@ -0,0 +1,190 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.entity.Product;
+import com.ecobazaar.event.CatalogChangedEvent;
+import com.ecobazaar.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the in-memory {@link CatalogSnapshot} of approved products. The snapshot is built on
+ * startup, patched after every committed {@link CatalogChangedEvent} and fully rebuilt on a
+ * slow interval to pick up changes made by other nodes. Registered {@link CatalogIndex} beans
+ * are updated under the same write lock.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<CatalogIndex> indexes = List.of();
+
+    @Value("${catalog.snapshot.enabled:true}")
+    private boolean enabled;
+
+    // Null until the first build completes; readers fall back to the database meanwhile
+    private volatile CatalogSnapshot snapshot;
+
+    private final Object writeLock = new Object();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Timer fullRebuildTimer;
+    private Timer patchTimer;
+
+    @PostConstruct
+    void init() {
+        hitCounter = Counter.builder("catalog.snapshot.lookups").tag("result", "hit").register(meterRegistry);
+        missCounter = Counter.builder("catalog.snapshot.lookups").tag("result", "miss").register(meterRegistry);
+        fullRebuildTimer = Timer.builder("catalog.snapshot.rebuild").tag("type", "full").register(meterRegistry);
+        patchTimer = Timer.builder("catalog.snapshot.rebuild").tag("type", "patch").register(meterRegistry);
+        Gauge.builder("catalog.snapshot.size", this, service -> {
+            CatalogSnapshot current = service.snapshot;
+            return current == null ? 0 : current.size();
+        }).register(meterRegistry);
+    }
+
+    /* ================= READS ================= */
+
+    /** The current snapshot, or {@code null} when disabled or not built yet. */
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            missCounter.increment();
+        } else {
+            hitCounter.increment();
+        }
+        return current;
+    }
+
+    /**
+     * Content version of the approved catalog held by the snapshot, or {@code null} when there is
+     * no snapshot. Equal on every node that lists the same products; see {@link CatalogSnapshot}.
+     */
+    public Long catalogVersion() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current.getVersion() : null;
+    }
+
+    /** Last-modified time of an approved product as held by the snapshot, or {@code null}. */
+    public LocalDateTime findApprovedUpdatedAt(Long productId) {
+        CatalogSnapshot current = snapshot;
+        CatalogEntry entry = current == null ? null : current.get(productId);
+        return entry == null ? null : entry.getUpdatedAt();
+    }
+
+    public List<ProductDTO> approvedProducts() {
+        CatalogSnapshot current = current();
+        return current == null ? null : current.products();
+    }
+
+    public ProductDTO findApproved(Long productId) {
+        CatalogSnapshot current = snapshot;
+        CatalogEntry entry = current == null ? null : current.get(productId);
+        if (entry == null) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return entry.getProduct();
+    }
+
+    /* ================= WRITES ================= */
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.snapshot.refresh-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getProductIds() == null) {
+            rebuild();
+            return;
+        }
+        if (event.getProductIds().isEmpty()) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            CatalogSnapshot current = snapshot;
+            if (current == null) {
+                // The startup build has not run yet and will pick the change up
+                return;
+            }
+            patchTimer.record(() -> {
+                Map<Long, CatalogEntry> changes = new HashMap<>();
+                for (Long id : event.getProductIds()) {
+                    changes.put(id, null);
+                }
+                for (Product product : productRepository.findAllById(event.getProductIds())) {
+                    if (product.getStatus() == Product.Status.APPROVED) {
+                        changes.put(product.getId(), CatalogEntry.of(product, ProductService.convertToDTO(product)));
+                    }
+                }
+                // Products that were not listed and still are not (e.g. new pending ones) change nothing
+                changes.entrySet().removeIf(change -> change.getValue() == null && current.get(change.getKey()) == null);
+                if (!changes.isEmpty()) {
+                    snapshot = current.apply(changes);
+                    changes.forEach((id, after) -> {
+                        CatalogEntry before = current.get(id);
+                        indexes.forEach(index -> index.update(before, after));
+                    });
+                }
+            });
+        }
+    }
+
+    private void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            fullRebuildTimer.record(() -> {
+                List<CatalogEntry> entries = productRepository.findByStatus(Product.Status.APPROVED)
+                        .stream()
+                        .map(product -> CatalogEntry.of(product, ProductService.convertToDTO(product)))
+                        .toList();
+                CatalogSnapshot rebuilt = CatalogSnapshot.build(entries);
+                indexes.forEach(index -> index.rebuild(rebuilt));
+                snapshot = rebuilt;
+            });
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecobazaar.service;
+
+public enum CatalogSort {
+    NEWEST, PRICE, ECO;
+
+    public static CatalogSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value + " (expected newest, price or eco)");
+        }
+    }
+}
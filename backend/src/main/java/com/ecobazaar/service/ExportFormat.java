@@ -0,0 +1,35 @@
+package com.ecobazaar.service;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Picks the format from a {@code format} request parameter ({@code csv} or {@code ndjson}). */
+    public static ExportFormat fromParameter(String format) {
+        String name = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        for (ExportFormat candidate : values()) {
+            if (candidate.extension.equals(name)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format + " (expected csv or ndjson)");
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecobazaar.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Carbon estimates from emission-factor tables: a base footprint per eco rating, interpolated
+ * between configured anchor points, scaled by a multiplier per price band and floored at a
+ * minimum.
+ *
+ * <p>Eco ratings are stored with one decimal place, so there are only 101 of them. Every
+ * combination of rating and price band is computed once when the tables are loaded and kept as
+ * ready-made {@link BigDecimal}s; an estimate is two array lookups and allocates nothing.
+ */
+@Service
+public class FactorTableCarbonEstimator implements CarbonEstimator {
+
+    private static final int ECO_RATING_STEPS = 101;
+    private static final int SCALE = 2;
+
+    @Value("${carbon.factors.location:classpath:carbon-factors.properties}")
+    private Resource location;
+
+    private volatile Tables tables;
+
+    @PostConstruct
+    @Override
+    public void reload() {
+        Properties factors = new Properties();
+        try (InputStream in = location.getInputStream()) {
+            factors.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read carbon factor tables from " + location, e);
+        }
+        tables = Tables.parse(factors);
+    }
+
+    @Override
+    public BigDecimal estimate(BigDecimal ecoRating, BigDecimal price) {
+        Tables current = tables;
+        int step = (int) Math.max(0, Math.min(ECO_RATING_STEPS - 1, Math.round(ecoRating.doubleValue() * 10)));
+        return current.estimates[current.band(price) * ECO_RATING_STEPS + step];
+    }
+
+    /* ================= TABLES ================= */
+
+    private static final class Tables {
+
+        private final double[] priceEdges;
+        // Indexed by band * ECO_RATING_STEPS + rating step
+        private final BigDecimal[] estimates;
+
+        private Tables(double[] priceEdges, BigDecimal[] estimates) {
+            this.priceEdges = priceEdges;
+            this.estimates = estimates;
+        }
+
+        int band(BigDecimal price) {
+            if (price == null || priceEdges.length == 0) {
+                return 0;
+            }
+            int index = Arrays.binarySearch(priceEdges, price.doubleValue());
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        static Tables parse(Properties factors) {
+            double[][] anchors = parseAnchors(required(factors, "eco-rating"));
+            double[] priceEdges = parseList(factors.getProperty("price-edges", ""));
+            double[] multipliers = parseList(required(factors, "price-multipliers"));
+            double minimum = Double.parseDouble(factors.getProperty("minimum", "0").trim());
+            for (int i = 1; i < priceEdges.length; i++) {
+                if (priceEdges[i - 1] >= priceEdges[i]) {
+                    throw new IllegalStateException("Carbon price edges must be strictly increasing");
+                }
+            }
+            if (multipliers.length != priceEdges.length + 1) {
+                throw new IllegalStateException("Expected " + (priceEdges.length + 1)
+                        + " carbon price multipliers but found " + multipliers.length);
+            }
+
+            double[] base = new double[ECO_RATING_STEPS];
+            for (int step = 0; step < ECO_RATING_STEPS; step++) {
+                base[step] = interpolate(anchors, step / 10.0);
+            }
+            BigDecimal[] estimates = new BigDecimal[multipliers.length * ECO_RATING_STEPS];
+            for (int band = 0; band < multipliers.length; band++) {
+                for (int step = 0; step < ECO_RATING_STEPS; step++) {
+                    double value = Math.max(minimum, base[step] * multipliers[band]);
+                    // Shed binary floating-point noise first so e.g. 14.255 rounds up like the database would
+                    estimates[band * ECO_RATING_STEPS + step] = BigDecimal.valueOf(value)
+                            .setScale(9, RoundingMode.HALF_UP)
+                            .setScale(SCALE, RoundingMode.HALF_UP);
+                }
+            }
+            return new Tables(priceEdges, estimates);
+        }
+
+        /** {@code rating:kg} pairs sorted by rating. */
+        private static double[][] parseAnchors(String value) {
+            double[][] anchors = Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(pair -> !pair.isEmpty())
+                    .map(pair -> {
+                        String[] parts = pair.split(":");
+                        if (parts.length != 2) {
+                            throw new IllegalStateException("Malformed eco-rating anchor: " + pair);
+                        }
+                        return new double[]{Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())};
+                    })
+                    .sorted((a, b) -> Double.compare(a[0], b[0]))
+                    .toArray(double[][]::new);
+            if (anchors.length == 0) {
+                throw new IllegalStateException("At least one eco-rating anchor is required");
+            }
+            return anchors;
+        }
+
+        private static double interpolate(double[][] anchors, double rating) {
+            if (rating <= anchors[0][0]) {
+                return anchors[0][1];
+            }
+            for (int i = 1; i < anchors.length; i++) {
+                if (rating <= anchors[i][0]) {
+                    double[] low = anchors[i - 1];
+                    double[] high = anchors[i];
+                    return low[1] + (high[1] - low[1]) * (rating - low[0]) / (high[0] - low[0]);
+                }
+            }
+            return anchors[anchors.length - 1][1];
+        }
+
+        private static double[] parseList(String value) {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(item -> !item.isEmpty())
+                    .mapToDouble(Double::parseDouble)
+                    .toArray();
+        }
+
+        private static String required(Properties factors, String key) {
+            String value = factors.getProperty(key);
+            if (value == null || value.isBlank()) {
+                throw new IllegalStateException("Carbon factor table is missing " + key);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecobazaar.service;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    /** Picks the format from a request content type such as {@code text/csv} or {@code application/x-ndjson}. */
+    public static ImportFormat fromContentType(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.contains("csv")) {
+            return CSV;
+        }
+        if (type.contains("ndjson") || type.contains("jsonl") || type.contains("json-seq")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + contentType
+                + " (expected text/csv or application/x-ndjson)");
+    }
+}
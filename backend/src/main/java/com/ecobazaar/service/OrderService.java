@@ -4,18 +4,27 @@ import com.ecobazaar.entity.CartItem;
 import com.ecobazaar.entity.Order;
 import com.ecobazaar.entity.OrderItem;
 import com.ecobazaar.entity.Product;
+import com.ecobazaar.event.CatalogChangedEvent;
 import com.ecobazaar.repository.CartItemRepository;
 import com.ecobazaar.repository.OrderItemRepository;
 import com.ecobazaar.repository.OrderRepository;
 import com.ecobazaar.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -33,7 +42,38 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartTotalsService cartTotals;
+
+    @Autowired
+    private StockReservationService reservations;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate checkoutTransaction;
+
+    @PostConstruct
+    void init() {
+        checkoutTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // The order commits in its own transaction while the cart store holds the buyer's flushed cart,
+    // so no cart write can land between reading the cart and clearing it
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> checkout(Long buyerId) {
+        return cartStore.checkout(buyerId, () -> checkoutTransaction.execute(status -> placeOrder(buyerId)));
+    }
+
+    private Map<String, Object> placeOrder(Long buyerId) {
+        // No cart write may land between reading the cart and clearing it
+        cartItemRepository.lockCart(buyerId);
         List<CartItem> cartItems = cartItemRepository.findByBuyerId(buyerId);
         
         if (cartItems.isEmpty()) {
@@ -43,17 +83,32 @@ public class OrderService {
         BigDecimal totalAmount = BigDecimal.ZERO;
         BigDecimal totalCarbonFootprint = BigDecimal.ZERO;
 
+        // One query for every product in the cart instead of one per line, locking them until
+        // commit so the stock checked below is still there when it is decremented
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(
+                cartItems.stream().map(CartItem::getProductId).collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Units other buyers hold are not for sale; the buyer's own (even expired) holds are what they are buying
+        Map<Long, Integer> heldByOthers = reservations.isEnabled()
+            ? reservations.heldByOthers(products.keySet(), buyerId)
+            : Map.of();
+
         // Validate stock and calculate totals
         for (CartItem cartItem : cartItems) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found: " + cartItem.getProductId()));
+            Product product = products.get(cartItem.getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + cartItem.getProductId());
+            }
 
             if (product.getStatus() != Product.Status.APPROVED) {
                 throw new RuntimeException("Product " + product.getName() + " is no longer available");
             }
 
-            if (product.getQuantity() < cartItem.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for " + product.getName() + ". Available: " + product.getQuantity());
+            int available = product.getQuantity() - heldByOthers.getOrDefault(product.getId(), 0);
+            if (available < cartItem.getQuantity()) {
+                throw new RuntimeException("Insufficient stock for " + product.getName() + ". Available: " + Math.max(0, available));
             }
 
             BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
@@ -69,10 +124,11 @@ public class OrderService {
         Order order = new Order(buyerId, totalAmount, totalCarbonFootprint);
         order = orderRepository.save(order);
 
-        // Create order items and update product quantities
+        // Create order items and update product quantities; both are flushed as JDBC batches
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
         for (CartItem cartItem : cartItems) {
-            Product product = productRepository.findById(cartItem.getProductId()).get();
-            
+            Product product = products.get(cartItem.getProductId());
+
             OrderItem orderItem = new OrderItem();
             orderItem.setOrderId(order.getId());
             orderItem.setProductId(cartItem.getProductId());
@@ -80,15 +136,23 @@ public class OrderService {
             orderItem.setPrice(product.getPrice());
             orderItem.setCarbonFootprint(product.getCarbonFootprint() != null ? 
                 product.getCarbonFootprint().multiply(BigDecimal.valueOf(cartItem.getQuantity())) : null);
-            orderItemRepository.save(orderItem);
+            orderItems.add(orderItem);
 
-            // Update product quantity
+            // Update product quantity (written by dirty checking at flush)
             product.setQuantity(product.getQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
         }
+        orderItemRepository.saveAll(orderItems);
 
         // Clear cart
         cartItemRepository.deleteByBuyerId(buyerId);
+        if (reservations.isEnabled()) {
+            reservations.releaseAll(buyerId);
+        }
+        cartTotals.clear(buyerId);
+
+        // Stock levels changed for every purchased product
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+            cartItems.stream().map(CartItem::getProductId).collect(Collectors.toSet())));
 
         Map<String, Object> response = new HashMap<>();
         response.put("orderId", order.getId());
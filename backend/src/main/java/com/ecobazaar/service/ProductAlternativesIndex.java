@@ -0,0 +1,402 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.util.SearchTokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed lower-carbon alternatives for every approved product: the most similar products
+ * with a strictly smaller carbon footprint, best first. Similarity is the Jaccard overlap of name
+ * terms plus smaller bonuses for sharing a price band (powers of two) and for a close eco rating.
+ * Requests only read the finished lists, so a lookup is a single map access.
+ *
+ * <p>Candidates are found through the products sharing a name term. Each term keeps its products
+ * ordered by footprint, and only the {@code catalog.alternatives.candidates-per-term} nearest on
+ * either side of a product's footprint are looked at. A common term ("organic", say) therefore
+ * still finds the closest lower-carbon products in a busy category, while an update never touches
+ * more than a bounded window of it. Shared terms outside that window are not counted, so overlap
+ * scores in very common terms are a lower bound.
+ *
+ * <p>Patches are incremental: a product whose name, price band, eco rating and footprint are
+ * unchanged (a stock change, say) costs nothing; otherwise its own list is recomputed, lists that
+ * referenced it are recomputed, and neighbours it now qualifies for get it merged in. All writer
+ * state is only touched from {@link CatalogSnapshotService} under its write lock.
+ */
+@Component
+public class ProductAlternativesIndex implements CatalogIndex {
+
+    private static final double PRICE_WEIGHT = 0.25;
+    private static final double ECO_RATING_WEIGHT = 0.1;
+    private static final int NO_PRICE_BAND = Integer.MIN_VALUE;
+    private static final long[] NONE = new long[0];
+
+    @Value("${catalog.alternatives.per-product:10}")
+    private int perProduct;
+
+    @Value("${catalog.alternatives.candidates-per-term:200}")
+    private int candidatesPerTerm;
+
+    // Read by requests; replaced wholesale on rebuild, updated per product on patches
+    private volatile Map<Long, long[]> alternatives = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Products by slot. Scoring reads the primitive copies of their features, which keeps the
+    // candidate loop on a few flat arrays instead of chasing one object per candidate.
+    private Node[] nodes = new Node[0];
+    private long[] ids = new long[0];
+    private double[] carbon = new double[0];
+    private double[] ecoRating = new double[0];
+    private int[] priceBand = new int[0];
+    private int[] termCount = new int[0];
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+    private final Map<String, SlotList> postings = new HashMap<>();
+    // Scratch space for counting shared terms, indexed by slot
+    private int[] overlap = new int[0];
+    private int[] touched = new int[0];
+
+    private record Scored(Node node, double score) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /* ================= QUERY ================= */
+
+    /** Up to {@code limit} alternative ids for an approved product, best first. */
+    public List<Long> alternativesOf(long productId, int limit) {
+        long[] listed = alternatives.getOrDefault(productId, NONE);
+        List<Long> result = new ArrayList<>(Math.min(limit, listed.length));
+        for (int i = 0; i < listed.length && i < limit; i++) {
+            result.add(listed[i]);
+        }
+        return result;
+    }
+
+    /* ================= MAINTENANCE ================= */
+
+    @Override
+    public void rebuild(CatalogSnapshot snapshot) {
+        nodes = new Node[0];
+        slots.clear();
+        freeSlots.clear();
+        nextSlot = 0;
+        postings.clear();
+        ensureCapacity(Math.max(16, snapshot.size()));
+
+        List<Node> added = new ArrayList<>(snapshot.size());
+        for (CatalogEntry entry : snapshot.entriesById()) {
+            Node node = new Node(entry);
+            add(node);
+            added.add(node);
+        }
+        Map<Long, long[]> rebuilt = new ConcurrentHashMap<>(added.size() * 2);
+        for (Node node : added) {
+            assign(node, ranked(node.slot), rebuilt);
+        }
+        alternatives = rebuilt;
+        ready = true;
+    }
+
+    @Override
+    public void update(CatalogEntry before, CatalogEntry after) {
+        long id = before != null ? before.getId() : after.getId();
+        Integer slot = slots.get(id);
+        Node old = slot == null ? null : nodes[slot];
+        Node next = after == null ? null : new Node(after);
+        if (old != null && next != null && old.sameFeatures(next)) {
+            return;
+        }
+
+        Map<Long, long[]> published = alternatives;
+        Set<Long> referrers = old == null ? Set.of() : new HashSet<>(old.referrers);
+        if (old != null) {
+            assign(old, new Scored[0], published);
+            remove(old);
+        }
+        if (next != null) {
+            add(next);
+            assign(next, ranked(next.slot), published);
+        }
+
+        // Lists that held the old version may now have room for, or be owed, something else
+        for (Long referrer : referrers) {
+            Integer referrerSlot = slots.get(referrer);
+            if (referrerSlot != null) {
+                assign(nodes[referrerSlot], ranked(referrerSlot), published);
+            }
+        }
+        if (next == null) {
+            return;
+        }
+        // Neighbours with a larger footprint may want the new version
+        forEachNeighbour(next, (neighbour, shared) -> {
+            if (!referrers.contains(ids[neighbour]) && qualifies(neighbour, next.slot)) {
+                offer(nodes[neighbour], new Scored(next, score(neighbour, next.slot, shared)), published);
+            }
+        });
+    }
+
+    /* ================= RANKING ================= */
+
+    private interface NeighbourVisitor {
+        void visit(int neighbourSlot, int sharedTerms);
+    }
+
+    private void forEachNeighbour(Node node, NeighbourVisitor visitor) {
+        int count = 0;
+        for (String token : node.tokens) {
+            SlotList list = postings.get(token);
+            if (list == null) {
+                continue;
+            }
+            // The products with the nearest footprints on either side; all of them for most terms
+            int position = list.position(node.slot);
+            int end = Math.min(list.size, position + candidatesPerTerm);
+            for (int i = Math.max(0, position - candidatesPerTerm); i < end; i++) {
+                int slot = list.values[i];
+                if (overlap[slot]++ == 0) {
+                    touched[count++] = slot;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int slot = touched[i];
+            int shared = overlap[slot];
+            overlap[slot] = 0;
+            if (slot != node.slot) {
+                visitor.visit(slot, shared);
+            }
+        }
+    }
+
+    private Scored[] ranked(int product) {
+        if (Double.isNaN(carbon[product])) {
+            return new Scored[0];
+        }
+        // Best-first insertion into a short fixed array; lists are small enough that this beats a heap
+        int[] best = new int[perProduct];
+        double[] scores = new double[perProduct];
+        int[] size = {0};
+        forEachNeighbour(nodes[product], (neighbour, shared) -> {
+            if (!qualifies(product, neighbour)) {
+                return;
+            }
+            double score = score(product, neighbour, shared);
+            int position = size[0];
+            while (position > 0 && better(score, neighbour, scores[position - 1], best[position - 1])) {
+                position--;
+            }
+            if (position >= perProduct) {
+                return;
+            }
+            int end = Math.min(size[0], perProduct - 1);
+            System.arraycopy(best, position, best, position + 1, end - position);
+            System.arraycopy(scores, position, scores, position + 1, end - position);
+            best[position] = neighbour;
+            scores[position] = score;
+            size[0] = end + 1;
+        });
+        Scored[] ranked = new Scored[size[0]];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = new Scored(nodes[best[i]], scores[i]);
+        }
+        return ranked;
+    }
+
+    /** Merges one candidate into an existing list, which stays exact because lists only ever keep the top entries. */
+    private void offer(Node node, Scored candidate, Map<Long, long[]> published) {
+        Scored[] current = node.ranked;
+        int position = current.length;
+        while (position > 0 && better(candidate.score(), candidate.node().slot,
+                current[position - 1].score(), current[position - 1].node().slot)) {
+            position--;
+        }
+        if (position >= perProduct) {
+            return;
+        }
+        Scored[] merged = new Scored[Math.min(current.length + 1, perProduct)];
+        System.arraycopy(current, 0, merged, 0, position);
+        merged[position] = candidate;
+        System.arraycopy(current, position, merged, position + 1, merged.length - position - 1);
+        assign(node, merged, published);
+    }
+
+    private void assign(Node node, Scored[] ranked, Map<Long, long[]> published) {
+        for (Scored previous : node.ranked) {
+            previous.node().referrers.remove(node.id);
+        }
+        long[] listed = new long[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            listed[i] = ranked[i].node().id;
+            ranked[i].node().referrers.add(node.id);
+        }
+        node.ranked = ranked;
+        if (listed.length == 0) {
+            published.remove(node.id);
+        } else {
+            published.put(node.id, listed);
+        }
+    }
+
+    /** Ranking order: higher score, then lower footprint, then newer product. */
+    private boolean better(double score, int slot, double otherScore, int otherSlot) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        if (carbon[slot] != carbon[otherSlot]) {
+            return carbon[slot] < carbon[otherSlot];
+        }
+        return ids[slot] > ids[otherSlot];
+    }
+
+    private boolean qualifies(int product, int alternative) {
+        return carbon[alternative] < carbon[product];
+    }
+
+    private double score(int a, int b, int sharedTerms) {
+        double score = (double) sharedTerms / (termCount[a] + termCount[b] - sharedTerms);
+        if (priceBand[a] != NO_PRICE_BAND && priceBand[b] != NO_PRICE_BAND) {
+            int distance = Math.abs(priceBand[a] - priceBand[b]);
+            score += distance == 0 ? PRICE_WEIGHT : distance == 1 ? PRICE_WEIGHT / 2 : 0;
+        }
+        if (!Double.isNaN(ecoRating[a]) && !Double.isNaN(ecoRating[b])) {
+            score += ECO_RATING_WEIGHT * Math.max(0, 1 - Math.abs(ecoRating[a] - ecoRating[b]) / 10);
+        }
+        return score;
+    }
+
+    /* ================= STORAGE ================= */
+
+    private void add(Node node) {
+        int slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+        if (slot >= nodes.length) {
+            ensureCapacity(nodes.length * 2);
+        }
+        node.slot = slot;
+        nodes[slot] = node;
+        ids[slot] = node.id;
+        carbon[slot] = node.carbon;
+        ecoRating[slot] = node.ecoRating;
+        priceBand[slot] = node.priceBand;
+        termCount[slot] = node.tokens.length;
+        slots.put(node.id, slot);
+        for (String token : node.tokens) {
+            postings.computeIfAbsent(token, t -> new SlotList()).add(slot);
+        }
+    }
+
+    private void remove(Node node) {
+        for (String token : node.tokens) {
+            SlotList list = postings.get(token);
+            list.remove(node.slot);
+            if (list.size == 0) {
+                postings.remove(token);
+            }
+        }
+        nodes[node.slot] = null;
+        slots.remove(node.id);
+        freeSlots.push(node.slot);
+    }
+
+    private void ensureCapacity(int capacity) {
+        nodes = Arrays.copyOf(nodes, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        carbon = Arrays.copyOf(carbon, capacity);
+        ecoRating = Arrays.copyOf(ecoRating, capacity);
+        priceBand = Arrays.copyOf(priceBand, capacity);
+        termCount = Arrays.copyOf(termCount, capacity);
+        overlap = Arrays.copyOf(overlap, capacity);
+        touched = Arrays.copyOf(touched, capacity);
+    }
+
+    private static final class Node {
+
+        private final long id;
+        private final String[] tokens;
+        private final int priceBand;
+        private final double ecoRating;
+        // NaN when unknown; NaN compares false, so such products neither get nor are alternatives
+        private final double carbon;
+        private int slot;
+        private Scored[] ranked = new Scored[0];
+        // Products whose current list contains this one
+        private final Set<Long> referrers = new HashSet<>();
+
+        Node(CatalogEntry entry) {
+            id = entry.getId();
+            tokens = SearchTokenizer.tokenize(entry.getProduct().getName()).stream().distinct().sorted().toArray(String[]::new);
+            priceBand = entry.getPrice() == null ? NO_PRICE_BAND : Math.getExponent(entry.getPrice().doubleValue());
+            ecoRating = toDouble(entry.getEcoRating());
+            carbon = toDouble(entry.getCarbonFootprint());
+        }
+
+        boolean sameFeatures(Node other) {
+            return Arrays.equals(tokens, other.tokens) && priceBand == other.priceBand
+                    && Double.compare(ecoRating, other.ecoRating) == 0 && Double.compare(carbon, other.carbon) == 0;
+        }
+
+        private static double toDouble(BigDecimal value) {
+            return value == null ? Double.NaN : value.doubleValue();
+        }
+    }
+
+    /**
+     * Slots ordered by footprint, then slot. Unknown footprints (NaN) sort last. A slot's footprint
+     * must not change while it is listed, which holds because a changed product gets a new node.
+     */
+    private final class SlotList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int position = position(slot);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int position = position(slot);
+            if (position < size && values[position] == slot) {
+                System.arraycopy(values, position + 1, values, position, size - position - 1);
+                size--;
+            }
+        }
+
+        /** Where {@code slot} is, or would be inserted. */
+        int position(int slot) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int other = values[middle];
+                int order = Double.compare(carbon[other], carbon[slot]);
+                if (order < 0 || order == 0 && other < slot) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
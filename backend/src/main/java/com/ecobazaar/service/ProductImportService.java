@@ -0,0 +1,338 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.BulkImportResultDTO;
+import com.ecobazaar.dto.CreateProductRequest;
+import com.ecobazaar.dto.ImportRowErrorDTO;
+import com.ecobazaar.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams seller uploads (CSV or NDJSON) into the products table. Rows are parsed and validated
+ * one at a time and inserted in JDBC batches, each batch in its own short transaction, so neither
+ * the upload nor the persistence context grows with the input. Invalid rows are reported and
+ * skipped; valid rows are imported as PENDING products awaiting moderation.
+ */
+@Service
+public class ProductImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO products (id, name, description, price, image_url, quantity, "
+            + "eco_rating, status, seller_id, carbon_footprint, carbon_footprint_estimated, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, 'PENDING', ?, ?, ?, ?, ?)";
+
+    // Ids come from the Product sequence in the same blocks Hibernate's pooled optimizer uses:
+    // each nextval value v reserves (v - ID_BLOCK_SIZE, v]
+    private static final String NEXT_ID_BLOCKS_SQL = "SELECT nextval('products_seq') FROM generate_series(1, ?)";
+    private static final int ID_BLOCK_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CarbonEstimator carbonEstimator;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    private TransactionTemplate batchTransaction;
+    private ObjectReader requestReader;
+    private Timer importTimer;
+    private Counter importedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        batchTransaction = new TransactionTemplate(transactionManager);
+        requestReader = objectMapper.readerFor(CreateProductRequest.class);
+        importTimer = Timer.builder("catalog.import.duration").register(meterRegistry);
+        importedCounter = Counter.builder("catalog.import.rows").tag("outcome", "imported").register(meterRegistry);
+        rejectedCounter = Counter.builder("catalog.import.rows").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    public BulkImportResultDTO importProducts(InputStream body, ImportFormat format, Long sellerId) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            RowSource source = format == ImportFormat.CSV ? new CsvRowSource(new CsvReader(reader)) : new NdjsonRowSource(reader);
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            long row = 0;
+            while (true) {
+                try {
+                    if (!source.advance()) {
+                        break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // The CSV structure is broken from here on; keep what was imported so far
+                    reject(result, row + 1, e.getMessage() + "; remaining input was not read");
+                    break;
+                }
+                row++;
+                result.setReceived(row);
+                CreateProductRequest request;
+                try {
+                    request = source.current();
+                } catch (IllegalArgumentException e) {
+                    reject(result, row, e.getMessage());
+                    continue;
+                }
+                Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    reject(result, row, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                batch.add(new PendingRow(row, request));
+                if (batch.size() >= batchSize) {
+                    flush(batch, sellerId, result);
+                    batch.clear();
+                }
+            }
+            flush(batch, sellerId, result);
+        } finally {
+            sample.stop(importTimer);
+        }
+        return result;
+    }
+
+    /* ================= WRITES ================= */
+
+    private void flush(List<PendingRow> batch, Long sellerId, BulkImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchTransaction.executeWithoutResult(status -> insert(batch, sellerId));
+            imported(result, batch.size());
+        } catch (DataAccessException e) {
+            // One bad row fails the whole batch; replay it row by row to find out which
+            for (PendingRow pending : batch) {
+                try {
+                    batchTransaction.executeWithoutResult(status -> insert(List.of(pending), sellerId));
+                    imported(result, 1);
+                } catch (DataAccessException rowFailure) {
+                    reject(result, pending.row(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<PendingRow> rows, Long sellerId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Iterator<Long> ids = allocateIds(rows.size()).iterator();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, pending) -> {
+            CreateProductRequest request = pending.request();
+            ps.setLong(1, ids.next());
+            ps.setString(2, request.getName());
+            ps.setString(3, request.getDescription());
+            ps.setBigDecimal(4, request.getPrice());
+            ps.setString(5, request.getImageUrl());
+            ps.setInt(6, request.getQuantity());
+            ps.setBigDecimal(7, request.getEcoRating());
+            ps.setLong(8, sellerId);
+            boolean estimated = request.getCarbonFootprint() == null;
+            ps.setBigDecimal(9, estimated
+                    ? carbonEstimator.estimate(request.getEcoRating(), request.getPrice())
+                    : request.getCarbonFootprint());
+            ps.setBoolean(10, estimated);
+            ps.setTimestamp(11, now);
+            ps.setTimestamp(12, now);
+        });
+    }
+
+    private List<Long> allocateIds(int count) {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> ids = new ArrayList<>(blocks * ID_BLOCK_SIZE);
+        for (Long hi : jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class, blocks)) {
+            for (long id = hi - ID_BLOCK_SIZE + 1; id <= hi; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void imported(BulkImportResultDTO result, int count) {
+        result.setImported(result.getImported() + count);
+        importedCounter.increment(count);
+    }
+
+    private void reject(BulkImportResultDTO result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        rejectedCounter.increment();
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ImportRowErrorDTO(row, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private record PendingRow(long row, CreateProductRequest request) {
+    }
+
+    /* ================= PARSING ================= */
+
+    private interface RowSource {
+
+        /** Moves to the next non-blank row; false at end of input. */
+        boolean advance() throws IOException;
+
+        /** The current row as a request, or IllegalArgumentException when it cannot be read. */
+        CreateProductRequest current();
+    }
+
+    private final class NdjsonRowSource implements RowSource {
+
+        private final BufferedReader reader;
+        private String line;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line != null;
+        }
+
+        @Override
+        public CreateProductRequest current() {
+            try {
+                return requestReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * CSV with a header row naming the columns. Header names match {@link CreateProductRequest}
+     * properties case-insensitively, with snake_case accepted ({@code eco_rating}).
+     */
+    private static final class CsvRowSource implements RowSource {
+
+        private static final Map<String, String> COLUMNS = Map.of(
+                "name", "name",
+                "description", "description",
+                "price", "price",
+                "imageurl", "imageUrl",
+                "quantity", "quantity",
+                "ecorating", "ecoRating",
+                "carbonfootprint", "carbonFootprint");
+
+        private final CsvReader csv;
+        private final String[] header;
+        private List<String> record;
+
+        CsvRowSource(CsvReader csv) throws IOException {
+            this.csv = csv;
+            List<String> names = csv.next();
+            if (names == null) {
+                throw new IllegalArgumentException("CSV upload is empty");
+            }
+            header = new String[names.size()];
+            for (int i = 0; i < names.size(); i++) {
+                String key = names.get(i).trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+                header[i] = COLUMNS.get(key);
+                if (header[i] == null) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + names.get(i));
+                }
+            }
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            record = csv.next();
+            return record != null;
+        }
+
+        @Override
+        public CreateProductRequest current() {
+            if (record.size() != header.length) {
+                throw new IllegalArgumentException("Expected " + header.length + " columns but found " + record.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                String value = record.get(i).trim();
+                values.put(header[i], value.isEmpty() ? null : value);
+            }
+            CreateProductRequest request = new CreateProductRequest();
+            request.setName(values.get("name"));
+            request.setDescription(values.get("description"));
+            request.setPrice(decimal(values, "price"));
+            request.setImageUrl(values.get("imageUrl"));
+            request.setQuantity(integer(values, "quantity"));
+            request.setEcoRating(decimal(values, "ecoRating"));
+            request.setCarbonFootprint(decimal(values, "carbonFootprint"));
+            return request;
+        }
+
+        private static BigDecimal decimal(Map<String, String> values, String column) {
+            String value = values.get(column);
+            try {
+                return value == null ? null : new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": not a number: " + value);
+            }
+        }
+
+        private static Integer integer(Map<String, String> values, String column) {
+            String value = values.get(column);
+            try {
+                return value == null ? null : Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": not a whole number: " + value);
+            }
+        }
+    }
+}
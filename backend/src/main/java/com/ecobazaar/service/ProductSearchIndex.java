@@ -0,0 +1,399 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.util.SearchTokenizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index over the names and descriptions of approved products. Each term maps to an
+ * immutable postings list (ids ascending, with a per-product term weight); updates swap in a new
+ * list per touched term, so readers never observe a half-written posting. Lists are stored as
+ * chunks of a few hundred ids, and an update copies only the chunk it lands in plus the chunk
+ * table, so patching a term carried by most of the catalog stays cheap.
+ *
+ * <p>Queries match products containing every query term. Results are ranked by the sum of
+ * {@code idf(term) * weight(term, product)}, where a name occurrence counts three times as much
+ * as a description occurrence.
+ */
+@Component
+public class ProductSearchIndex implements CatalogIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    // Target ids per postings chunk; a chunk is split once it grows to twice this
+    private static final int CHUNK_SIZE = 256;
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator
+            .comparingDouble(Hit::score).reversed()
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+
+    private volatile int documentCount;
+    private volatile boolean ready;
+
+    /** Result of a ranked query: the requested window of ids plus the total number of matches. */
+    public record Result(List<Long> ids, int total) {
+    }
+
+    private record Hit(long id, double score) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /* ================= QUERY ================= */
+
+    /**
+     * Ranked ids of products matching every term of {@code query} and accepted by {@code filter}.
+     * {@code lookup} resolves ids against the snapshot the caller is serving from; ids it does
+     * not know are skipped.
+     */
+    public Result search(String query, CatalogFilter filter, CatalogSnapshot lookup, int offset, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        Postings[] lists = new Postings[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) {
+                return new Result(List.of(), 0);
+            }
+        }
+        // Drive the intersection from the rarest term so the candidate set is as small as possible
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+
+        int docs = Math.max(1, documentCount);
+        double[] idf = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            idf[i] = Math.log(1 + (docs - lists[i].size() + 0.5) / (lists[i].size() + 0.5));
+        }
+
+        int window = offset + limit;
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, window + 1), BEST_FIRST.reversed());
+        int total = 0;
+        Cursor[] cursors = new Cursor[lists.length];
+        for (int i = 1; i < lists.length; i++) {
+            cursors[i] = new Cursor(lists[i]);
+        }
+        for (Chunk chunk : lists[0].chunks) {
+            candidates:
+            for (int c = 0; c < chunk.ids.length; c++) {
+                long id = chunk.ids[c];
+                double score = idf[0] * chunk.weights[c];
+                for (int i = 1; i < lists.length; i++) {
+                    if (!cursors[i].advanceTo(id)) {
+                        continue candidates;
+                    }
+                    score += idf[i] * cursors[i].weight();
+                }
+                CatalogEntry entry = lookup.get(id);
+                if (entry == null || !filter.matches(entry)) {
+                    continue;
+                }
+                total++;
+                if (window > 0) {
+                    top.offer(new Hit(id, score));
+                    if (top.size() > window) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(BEST_FIRST);
+        List<Long> ids = new ArrayList<>(Math.min(limit, Math.max(0, ranked.size() - offset)));
+        for (int i = offset; i < ranked.size(); i++) {
+            ids.add(ranked.get(i).id());
+        }
+        return new Result(ids, total);
+    }
+
+    /* ================= MAINTENANCE ================= */
+
+    @Override
+    public void rebuild(CatalogSnapshot snapshot) {
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        // Entries arrive in id order, so every builder is appended to in ascending id order
+        for (CatalogEntry entry : snapshot.entriesById()) {
+            termWeights(entry).forEach((term, weight) ->
+                    builders.computeIfAbsent(term, t -> new PostingsBuilder()).add(entry.getId(), weight));
+        }
+        Map<String, Postings> rebuilt = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, builder) -> rebuilt.put(term, builder.build()));
+
+        postings.keySet().retainAll(rebuilt.keySet());
+        postings.putAll(rebuilt);
+        documentCount = snapshot.size();
+        ready = true;
+    }
+
+    @Override
+    public void update(CatalogEntry before, CatalogEntry after) {
+        Map<String, Float> removed = before == null ? Map.of() : termWeights(before);
+        Map<String, Float> added = after == null ? Map.of() : termWeights(after);
+        long id = before != null ? before.getId() : after.getId();
+
+        for (String term : removed.keySet()) {
+            if (!added.containsKey(term)) {
+                postings.computeIfPresent(term, (t, list) -> list.without(id));
+            }
+        }
+        added.forEach((term, weight) -> postings.compute(term,
+                (t, list) -> list == null ? Postings.single(id, weight) : list.with(id, weight)));
+
+        if (before == null) {
+            documentCount++;
+        } else if (after == null) {
+            documentCount--;
+        }
+    }
+
+    private static Map<String, Float> termWeights(CatalogEntry entry) {
+        ProductDTO product = entry.getProduct();
+        Map<String, Float> weights = new LinkedHashMap<>();
+        for (String term : SearchTokenizer.tokenize(product.getName())) {
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        }
+        for (String term : SearchTokenizer.tokenize(product.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        // Dampen repetition so keyword-stuffed descriptions do not dominate the ranking
+        weights.replaceAll((term, weight) -> (float) (1 + Math.log(weight)));
+        return weights;
+    }
+
+    /* ================= POSTINGS ================= */
+
+    private static final class Postings {
+
+        private final Chunk[] chunks;
+        // First id of each chunk, for finding the chunk an id belongs in
+        private final long[] firstIds;
+        private final int size;
+
+        private Postings(Chunk[] chunks) {
+            this.chunks = chunks;
+            this.firstIds = new long[chunks.length];
+            int total = 0;
+            for (int i = 0; i < chunks.length; i++) {
+                firstIds[i] = chunks[i].ids[0];
+                total += chunks[i].ids.length;
+            }
+            this.size = total;
+        }
+
+        static Postings single(long id, float weight) {
+            return new Postings(new Chunk[]{new Chunk(new long[]{id}, new float[]{weight})});
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Index of the chunk that holds, or would hold, {@code id}. */
+        int chunkOf(long id) {
+            int index = Arrays.binarySearch(firstIds, id);
+            return index >= 0 ? index : Math.max(0, -index - 2);
+        }
+
+        Postings with(long id, float weight) {
+            int index = chunkOf(id);
+            Chunk chunk = chunks[index];
+            Chunk updated = chunk.with(id, weight);
+            if (updated == chunk) {
+                return this;
+            }
+            if (updated.ids.length < 2 * CHUNK_SIZE) {
+                Chunk[] copy = chunks.clone();
+                copy[index] = updated;
+                return new Postings(copy);
+            }
+            int half = updated.ids.length / 2;
+            Chunk[] split = new Chunk[chunks.length + 1];
+            System.arraycopy(chunks, 0, split, 0, index);
+            split[index] = updated.slice(0, half);
+            split[index + 1] = updated.slice(half, updated.ids.length);
+            System.arraycopy(chunks, index + 1, split, index + 2, chunks.length - index - 1);
+            return new Postings(split);
+        }
+
+        /** This list without {@code id}, or {@code null} when that leaves it empty. */
+        Postings without(long id) {
+            int index = chunkOf(id);
+            Chunk chunk = chunks[index];
+            Chunk updated = chunk.without(id);
+            if (updated == chunk) {
+                return this;
+            }
+            if (updated != null) {
+                Chunk[] copy = chunks.clone();
+                copy[index] = updated;
+                return new Postings(copy);
+            }
+            if (chunks.length == 1) {
+                return null;
+            }
+            Chunk[] remaining = new Chunk[chunks.length - 1];
+            System.arraycopy(chunks, 0, remaining, 0, index);
+            System.arraycopy(chunks, index + 1, remaining, index, chunks.length - index - 1);
+            return new Postings(remaining);
+        }
+    }
+
+    /** One immutable, non-empty run of a postings list. */
+    private static final class Chunk {
+
+        private final long[] ids;
+        private final float[] weights;
+
+        Chunk(long[] ids, float[] weights) {
+            this.ids = ids;
+            this.weights = weights;
+        }
+
+        long lastId() {
+            return ids[ids.length - 1];
+        }
+
+        /** First position at or after {@code from} whose id is {@code >= id}. */
+        int seek(long id, int from) {
+            if (from >= ids.length || ids[from] >= id) {
+                return from;
+            }
+            // Gallop ahead, then binary search the bracketed range
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < ids.length && ids[high] < id) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int index = Arrays.binarySearch(ids, low + 1, Math.min(high + 1, ids.length), id);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        Chunk slice(int from, int to) {
+            return new Chunk(Arrays.copyOfRange(ids, from, to), Arrays.copyOfRange(weights, from, to));
+        }
+
+        Chunk with(long id, float weight) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                if (weights[index] == weight) {
+                    return this;
+                }
+                float[] copy = weights.clone();
+                copy[index] = weight;
+                return new Chunk(ids, copy);
+            }
+            int insert = -index - 1;
+            long[] newIds = new long[ids.length + 1];
+            float[] newWeights = new float[ids.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, insert);
+            System.arraycopy(weights, 0, newWeights, 0, insert);
+            newIds[insert] = id;
+            newWeights[insert] = weight;
+            System.arraycopy(ids, insert, newIds, insert + 1, ids.length - insert);
+            System.arraycopy(weights, insert, newWeights, insert + 1, ids.length - insert);
+            return new Chunk(newIds, newWeights);
+        }
+
+        /** This chunk without {@code id}, or {@code null} when that leaves it empty. */
+        Chunk without(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] newIds = new long[ids.length - 1];
+            float[] newWeights = new float[ids.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, index);
+            System.arraycopy(weights, 0, newWeights, 0, index);
+            System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+            System.arraycopy(weights, index + 1, newWeights, index, ids.length - index - 1);
+            return new Chunk(newIds, newWeights);
+        }
+    }
+
+    /** Forward-only position in a postings list, for intersecting it with ascending ids. */
+    private static final class Cursor {
+
+        private final Postings list;
+        private int chunk;
+        private int position;
+
+        Cursor(Postings list) {
+            this.list = list;
+        }
+
+        /** Moves to the first entry with an id {@code >= id}; true when that entry is {@code id}. */
+        boolean advanceTo(long id) {
+            Chunk[] chunks = list.chunks;
+            if (chunk >= chunks.length) {
+                return false;
+            }
+            if (chunks[chunk].lastId() < id) {
+                // Skip whole chunks without looking inside them
+                int index = Arrays.binarySearch(list.firstIds, chunk + 1, chunks.length, id);
+                chunk = index >= 0 ? index : Math.max(chunk + 1, -index - 2);
+                position = 0;
+                if (chunk < chunks.length && chunks[chunk].lastId() < id) {
+                    chunk++;
+                }
+                if (chunk >= chunks.length) {
+                    return false;
+                }
+            }
+            position = chunks[chunk].seek(id, position);
+            return chunks[chunk].ids[position] == id;
+        }
+
+        float weight() {
+            return list.chunks[chunk].weights[position];
+        }
+    }
+
+    private static final class PostingsBuilder {
+
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(long id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size++] = weight;
+        }
+
+        Postings build() {
+            Chunk[] chunks = new Chunk[(size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+            for (int i = 0; i < chunks.length; i++) {
+                int from = i * CHUNK_SIZE;
+                int to = Math.min(size, from + CHUNK_SIZE);
+                chunks[i] = new Chunk(Arrays.copyOfRange(ids, from, to), Arrays.copyOfRange(weights, from, to));
+            }
+            return new Postings(chunks);
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.ecobazaar.service;
 
 import com.ecobazaar.dto.CreateProductRequest;
+import com.ecobazaar.dto.ModerationOutcomeDTO;
 import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.dto.ProductPageDTO;
+import com.ecobazaar.dto.ProductSearchResultDTO;
+import com.ecobazaar.dto.SellerDashboardStatsDTO;
 import com.ecobazaar.entity.Product;
+import com.ecobazaar.event.CatalogChangedEvent;
 import com.ecobazaar.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,7 +41,46 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductAlternativesIndex productAlternativesIndex;
+
+    @Autowired
+    private CarbonEstimator carbonEstimator;
+
+    @Autowired
+    private CatalogFacetIndex catalogFacetIndex;
+
+    @Autowired
+    private CartTotalsService cartTotals;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${catalog.page.max-scan:10000}")
+    private int maxPageScan;
+
+    @Value("${catalog.search.max-results:1000}")
+    private int maxSearchResults;
+
+    @Value("${catalog.alternatives.per-product:10}")
+    private int alternativesPerProduct;
+
+    @Value("${catalog.moderation.max-batch:10000}")
+    private int maxModerationBatch;
+
+    private static final int MODERATION_CHUNK_SIZE = 1000;
 
     public ProductDTO createProduct(CreateProductRequest request, Long sellerId) {
         Product product = new Product();
@@ -33,43 +93,200 @@ public class ProductService {
         product.setSellerId(sellerId);
         product.setStatus(Product.Status.PENDING);
 
-        // Set carbon footprint if provided, otherwise calculate based on eco rating
+        // Set carbon footprint if provided, otherwise estimate it from the product's attributes
         if (request.getCarbonFootprint() != null) {
             product.setCarbonFootprint(request.getCarbonFootprint());
         } else {
-            // Simple calculation: higher eco rating = lower carbon footprint
-            // Eco rating 10 = 0.1 kg, eco rating 0 = 15 kg
-            BigDecimal carbonFootprint = BigDecimal.valueOf(15.0)
-                .subtract(request.getEcoRating().multiply(BigDecimal.valueOf(1.49)));
-            if (carbonFootprint.compareTo(BigDecimal.ZERO) < 0) {
-                carbonFootprint = BigDecimal.valueOf(0.1);
-            }
-            product.setCarbonFootprint(carbonFootprint);
+            product.setCarbonFootprint(carbonEstimator.estimate(request.getEcoRating(), request.getPrice()));
+            product.setCarbonFootprintEstimated(true);
         }
 
         product = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(product.getId()));
         return convertToDTO(product);
     }
 
+    @Transactional(readOnly = true)
     public List<ProductDTO> getProductsBySeller(Long sellerId) {
-        return productRepository.findBySellerId(sellerId)
-            .stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return productRepository.findDtosBySellerId(sellerId);
     }
 
+    @Transactional(readOnly = true)
+    public SellerDashboardStatsDTO getSellerDashboardStats(Long sellerId) {
+        SellerDashboardStatsDTO stats = new SellerDashboardStatsDTO();
+        for (Object[] row : productRepository.summarizeBySeller(sellerId)) {
+            long count = ((Number) row[1]).longValue();
+            switch ((Product.Status) row[0]) {
+                case APPROVED -> stats.setApprovedProducts(count);
+                case PENDING -> stats.setPendingProducts(count);
+                case REJECTED -> stats.setRejectedProducts(count);
+            }
+            stats.setTotalProducts(stats.getTotalProducts() + count);
+            stats.setTotalStock(stats.getTotalStock() + ((Number) row[2]).longValue());
+            stats.setStockValue(stats.getStockValue().add((BigDecimal) row[3]));
+        }
+        return stats;
+    }
+
+    @Transactional(readOnly = true)
     public List<ProductDTO> getPendingProducts() {
-        return productRepository.findByStatusOrderByCreatedAtDesc(Product.Status.PENDING)
-            .stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return productRepository.findDtosByStatusOrderByCreatedAtDesc(Product.Status.PENDING);
     }
 
+    @Transactional(readOnly = true)
     public List<ProductDTO> getApprovedProducts() {
-        return productRepository.findByStatus(Product.Status.APPROVED)
-            .stream()
-            .map(this::convertToDTO)
+        List<ProductDTO> cached = catalogSnapshotService.approvedProducts();
+        if (cached != null) {
+            return cached;
+        }
+        return productRepository.findDtosByStatus(Product.Status.APPROVED);
+    }
+
+    /**
+     * One keyset page of approved products. The cursor is opaque to clients and carries the sort
+     * key and id of the last row returned, so every page is a bounded range over a sorted index:
+     * the in-memory snapshot when it is available, otherwise the matching composite index.
+     * Facet counts for the filter are attached from the precomputed facet index when the
+     * snapshot is available, naming the facets whose counts are only upper bounds.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDTO getApprovedProductsPage(String sort, String cursor, Integer limit, CatalogFilter filter) {
+        CatalogSort catalogSort = CatalogSort.parse(sort);
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        int fetchSize = pageSize + 1;
+        CatalogEntry after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, catalogSort);
+
+        List<CatalogEntry> rows;
+        CatalogEntry resumeAfter = null;
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            CatalogSnapshot.Page filtered = snapshot.page(catalogSort, after, fetchSize, filter, maxPageScan);
+            rows = filtered.entries();
+            resumeAfter = filtered.resumeAfter();
+        } else if (filter.isEmpty()) {
+            rows = findApprovedPage(catalogSort, after, fetchSize)
+                .stream()
+                .map(product -> CatalogEntry.of(product, convertToDTO(product)))
+                .collect(Collectors.toList());
+        } else {
+            rows = findApprovedPage(catalogSort, after, fetchSize, filter)
+                .stream()
+                .map(product -> CatalogEntry.of(product, convertToDTO(product)))
+                .collect(Collectors.toList());
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<CatalogEntry> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(catalogSort, page.get(page.size() - 1))
+            : resumeAfter != null ? encodeCursor(catalogSort, resumeAfter)
+            : null;
+
+        ProductPageDTO result = new ProductPageDTO(page.stream().map(CatalogEntry::getProduct).collect(Collectors.toList()), nextCursor);
+        if (snapshot != null) {
+            result.setFacets(catalogFacetIndex.facets(filter));
+            result.setApproximateFacets(catalogFacetIndex.approximateFacets(filter));
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSearchResultDTO searchApprovedProducts(String query, CatalogFilter filter, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        if ((long) pageNumber * pageSize >= maxSearchResults) {
+            throw new IllegalArgumentException("Only the first " + maxSearchResults + " results can be paged through");
+        }
+        int offset = pageNumber * pageSize;
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null && productSearchIndex.isReady()) {
+            ProductSearchIndex.Result result = productSearchIndex.search(query, filter, snapshot, offset, pageSize);
+            List<ProductDTO> items = result.ids().stream()
+                .map(snapshot::get)
+                .map(CatalogEntry::getProduct)
+                .collect(Collectors.toList());
+            return new ProductSearchResultDTO(items, result.total(), pageNumber, pageSize);
+        }
+
+        String pattern = "%" + query.trim().toLowerCase(Locale.ROOT) + "%";
+        Page<Product> result = productRepository.searchApproved(pattern,
+            filter.getMinPrice(), filter.getMaxPrice(), filter.getMinEcoRating(), filter.getMaxEcoRating(),
+            filter.getMinCarbonFootprint(), filter.getMaxCarbonFootprint(),
+            PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "id")));
+        List<ProductDTO> items = result.getContent().stream()
+            .map(ProductService::convertToDTO)
             .collect(Collectors.toList());
+        return new ProductSearchResultDTO(items, result.getTotalElements(), pageNumber, pageSize);
+    }
+
+    private List<Product> findApprovedPage(CatalogSort sort, CatalogEntry after, int fetchSize) {
+        if (after == null) {
+            return switch (sort) {
+                case NEWEST -> productRepository.findApprovedNewestFirst(fetchSize);
+                case PRICE -> productRepository.findApprovedCheapestFirst(fetchSize);
+                case ECO -> productRepository.findApprovedGreenestFirst(fetchSize);
+            };
+        }
+        return switch (sort) {
+            case NEWEST -> productRepository.findApprovedNewestFirstAfter(after.getCreatedAt(), after.getId(), fetchSize);
+            case PRICE -> productRepository.findApprovedCheapestFirstAfter(after.getPrice(), after.getId(), fetchSize);
+            case ECO -> productRepository.findApprovedGreenestFirstAfter(after.getEcoRating(), after.getId(), fetchSize);
+        };
+    }
+
+    private List<Product> findApprovedPage(CatalogSort sort, CatalogEntry after, int fetchSize, CatalogFilter filter) {
+        PageRequest limit = PageRequest.of(0, fetchSize);
+        Long afterId = after == null ? null : after.getId();
+        return switch (sort) {
+            case NEWEST -> productRepository.findApprovedNewestFirstFiltered(
+                after == null ? null : after.getCreatedAt(), afterId,
+                filter.getMinPrice(), filter.getMaxPrice(), filter.getMinEcoRating(), filter.getMaxEcoRating(),
+                filter.getMinCarbonFootprint(), filter.getMaxCarbonFootprint(), limit);
+            case PRICE -> productRepository.findApprovedCheapestFirstFiltered(
+                after == null ? null : after.getPrice(), afterId,
+                filter.getMinPrice(), filter.getMaxPrice(), filter.getMinEcoRating(), filter.getMaxEcoRating(),
+                filter.getMinCarbonFootprint(), filter.getMaxCarbonFootprint(), limit);
+            case ECO -> productRepository.findApprovedGreenestFirstFiltered(
+                after == null ? null : after.getEcoRating(), afterId,
+                filter.getMinPrice(), filter.getMaxPrice(), filter.getMinEcoRating(), filter.getMaxEcoRating(),
+                filter.getMinCarbonFootprint(), filter.getMaxCarbonFootprint(), limit);
+        };
+    }
+
+    private String encodeCursor(CatalogSort sort, CatalogEntry last) {
+        String key = switch (sort) {
+            case NEWEST -> last.getCreatedAt().toString();
+            case PRICE -> last.getPrice().toPlainString();
+            case ECO -> last.getEcoRating().toPlainString();
+        };
+        String raw = sort.name() + "|" + key + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Turns a cursor back into a probe entry carrying only the keys the sort compares on
+    private CatalogEntry decodeCursor(String cursor, CatalogSort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sort.name())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        try {
+            long lastId = Long.parseLong(parts[2]);
+            return switch (sort) {
+                case NEWEST -> new CatalogEntry(lastId, LocalDateTime.parse(parts[1]), null, null, null, null, null);
+                case PRICE -> new CatalogEntry(lastId, null, null, new BigDecimal(parts[1]), null, null, null);
+                case ECO -> new CatalogEntry(lastId, null, null, null, new BigDecimal(parts[1]), null, null);
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     public ProductDTO approveProduct(Long productId) {
@@ -77,6 +294,7 @@ public class ProductService {
             .orElseThrow(() -> new RuntimeException("Product not found"));
         product.setStatus(Product.Status.APPROVED);
         product = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(productId));
         return convertToDTO(product);
     }
 
@@ -85,15 +303,158 @@ public class ProductService {
             .orElseThrow(() -> new RuntimeException("Product not found"));
         product.setStatus(Product.Status.REJECTED);
         product = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(productId));
         return convertToDTO(product);
     }
 
+    /**
+     * Approves and rejects many pending products at once. Each list is applied with set-based,
+     * status-guarded UPDATEs in chunks, so a product that another admin already moderated is
+     * reported as skipped rather than overwritten. One catalog change event covers the batch.
+     *
+     * @return one outcome per distinct id: approvals first, then rejections, then conflicts
+     */
+    public List<ModerationOutcomeDTO> moderateProducts(Collection<Long> approveIds, Collection<Long> rejectIds) {
+        Set<Long> approve = distinctIds(approveIds);
+        Set<Long> reject = distinctIds(rejectIds);
+        if (approve.size() + reject.size() > maxModerationBatch) {
+            throw new IllegalArgumentException("At most " + maxModerationBatch + " products can be moderated per request");
+        }
+        Set<Long> conflicts = new LinkedHashSet<>(approve);
+        conflicts.retainAll(reject);
+        approve.removeAll(conflicts);
+        reject.removeAll(conflicts);
+
+        Map<Long, ModerationOutcomeDTO> outcomes = new HashMap<>();
+        List<Long> changed = new ArrayList<>();
+        applyTransition(approve, Product.Status.APPROVED, outcomes, changed);
+        applyTransition(reject, Product.Status.REJECTED, outcomes, changed);
+
+        // Whatever did not move was either not pending any more or does not exist
+        List<Long> unresolved = new ArrayList<>();
+        approve.stream().filter(id -> !outcomes.containsKey(id)).forEach(unresolved::add);
+        reject.stream().filter(id -> !outcomes.containsKey(id)).forEach(unresolved::add);
+        for (List<Long> chunk : chunks(unresolved)) {
+            for (Object[] row : productRepository.findStatusesByIdIn(chunk)) {
+                Long id = (Long) row[0];
+                outcomes.put(id, new ModerationOutcomeDTO(id, "SKIPPED", ((Product.Status) row[1]).name()));
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(changed));
+        }
+
+        List<ModerationOutcomeDTO> result = new ArrayList<>(approve.size() + reject.size() + conflicts.size());
+        for (Long id : approve) {
+            result.add(outcomes.getOrDefault(id, new ModerationOutcomeDTO(id, "NOT_FOUND", null)));
+        }
+        for (Long id : reject) {
+            result.add(outcomes.getOrDefault(id, new ModerationOutcomeDTO(id, "NOT_FOUND", null)));
+        }
+        for (Long id : conflicts) {
+            result.add(new ModerationOutcomeDTO(id, "CONFLICT", null));
+        }
+        return result;
+    }
+
+    private void applyTransition(Set<Long> ids, Product.Status target,
+                                 Map<Long, ModerationOutcomeDTO> outcomes, List<Long> changed) {
+        for (List<Long> chunk : chunks(new ArrayList<>(ids))) {
+            for (Long id : productRepository.transitionStatus(chunk, Product.Status.PENDING.name(), target.name())) {
+                outcomes.put(id, new ModerationOutcomeDTO(id, target.name(), target.name()));
+                changed.add(id);
+            }
+        }
+    }
+
+    private static Set<Long> distinctIds(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(distinct::add);
+        }
+        return distinct;
+    }
+
+    // Keeps IN lists well under the driver's bind parameter limit
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += MODERATION_CHUNK_SIZE) {
+            chunks.add(ids.subList(start, Math.min(ids.size(), start + MODERATION_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Strong ETag for the approved product list. Both forms are derived from what the database
+     * holds, so every node gives the same tag for the same list: the snapshot's content version,
+     * or without a snapshot the approved count and latest change.
+     */
+    @Transactional(readOnly = true)
+    public String getCatalogETag() {
+        Long version = catalogSnapshotService.catalogVersion();
+        if (version != null) {
+            return "\"c" + Long.toHexString(version) + "\"";
+        }
+        Object[] state = productRepository.findCountAndLatestUpdateByStatus(Product.Status.APPROVED).get(0);
+        return "\"d" + state[0] + "-" + state[1] + "\"";
+    }
+
+    /**
+     * Weak ETag for one product, derived from its last-modified time, or {@code null} when the
+     * product does not exist. Served from the snapshot for approved products.
+     */
+    @Transactional(readOnly = true)
+    public String getProductETag(Long productId) {
+        LocalDateTime updatedAt = catalogSnapshotService.findApprovedUpdatedAt(productId);
+        if (updatedAt == null) {
+            updatedAt = productRepository.findUpdatedAtById(productId).orElse(null);
+        }
+        return updatedAt == null ? null : "W/\"p" + productId + "-" + updatedAt + "\"";
+    }
+
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(Long productId) {
+        ProductDTO cached = catalogSnapshotService.findApproved(productId);
+        if (cached != null) {
+            return cached;
+        }
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new RuntimeException("Product not found"));
         return convertToDTO(product);
     }
 
+    /**
+     * Approved products similar to {@code productId} with a smaller carbon footprint, best match
+     * first. Served from the precomputed alternatives index; while it is unavailable, falls back
+     * to the greenest approved products priced within a factor of two.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getLowerCarbonAlternatives(Long productId, Integer limit) {
+        int max = limit == null ? alternativesPerProduct : Math.max(1, Math.min(limit, alternativesPerProduct));
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null && productAlternativesIndex.isReady()) {
+            if (snapshot.get(productId) == null) {
+                throw new RuntimeException("Product not found");
+            }
+            return productAlternativesIndex.alternativesOf(productId, max).stream()
+                .map(snapshot::get)
+                .filter(Objects::nonNull)
+                .map(CatalogEntry::getProduct)
+                .collect(Collectors.toList());
+        }
+
+        Product product = productRepository.findById(productId)
+            .filter(p -> p.getStatus() == Product.Status.APPROVED)
+            .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (product.getCarbonFootprint() == null) {
+            return List.of();
+        }
+        return productRepository.findApprovedLowerCarbonAlternatives(product.getId(), product.getCarbonFootprint(),
+            product.getPrice().divide(BigDecimal.valueOf(2)), product.getPrice().multiply(BigDecimal.valueOf(2)),
+            PageRequest.of(0, max));
+    }
+
     public Product getProductEntity(Long productId) {
         return productRepository.findById(productId)
             .orElseThrow(() -> new RuntimeException("Product not found"));
@@ -104,33 +465,19 @@ public class ProductService {
             throw new RuntimeException("Product not found");
         }
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(productId));
+        // Lines left for the product no longer count towards their carts' totals
+        cartTotals.productsChanged(List.of(productId));
     }
 
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll()
-            .stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return productRepository.findAllDtos();
     }
 
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setImageUrl(product.getImageUrl());
-        dto.setQuantity(product.getQuantity());
-        dto.setEcoRating(product.getEcoRating());
-        dto.setStatus(product.getStatus().name());
-        dto.setSellerId(product.getSellerId());
-        dto.setCarbonFootprint(product.getCarbonFootprint());
-        if (product.getCreatedAt() != null) {
-            dto.setCreatedAt(product.getCreatedAt().format(formatter));
-        }
-        if (product.getUpdatedAt() != null) {
-            dto.setUpdatedAt(product.getUpdatedAt().format(formatter));
-        }
-        return dto;
+    static ProductDTO convertToDTO(Product product) {
+        return new ProductDTO(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+            product.getImageUrl(), product.getQuantity(), product.getEcoRating(), product.getStatus(),
+            product.getSellerId(), product.getCarbonFootprint(), product.getCreatedAt(), product.getUpdatedAt());
     }
 }
@@ -0,0 +1,138 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional soft reservations: while enabled, every unit in a database-backed cart is held for the
+ * buyer for a limited time, and other buyers can only add or check out the stock that is not held.
+ * A hold is refreshed whenever its cart line changes and stops counting once it expires; the
+ * sweeper only deletes expired rows so the table stays small.
+ *
+ * Callers run inside the cart or checkout transaction, so a refused hold rolls back the cart change
+ * that needed it.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+    // Deletes up to ? expired holds; rows another sweeper (or a buyer refreshing the hold) has
+    // locked are skipped rather than waited on
+    private static final String SWEEP_SQL =
+        "DELETE FROM stock_reservations WHERE id IN (" +
+        "SELECT id FROM stock_reservations WHERE expires_at <= LOCALTIMESTAMP " +
+        "ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    @Value("${cart.reservations.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.reservations.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${cart.reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter refusedCounter;
+    private Counter expiredCounter;
+    private Timer sweepTimer;
+
+    @PostConstruct
+    void init() {
+        if (enabled && cartStore.isEnabled()) {
+            // Write-behind carts never touch the database on add, which is the point of them
+            log.warn("cart.reservations.enabled is ignored while cart.write-behind.enabled is set");
+            enabled = false;
+        }
+        refusedCounter = Counter.builder("cart.reservations.refused").register(meterRegistry);
+        expiredCounter = Counter.builder("cart.reservations.expired").register(meterRegistry);
+        sweepTimer = Timer.builder("cart.reservations.sweep.duration").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the buyer's hold on the product to quantity units with a fresh TTL. Returns false, and
+     * leaves any existing hold alone, when fewer units are free.
+     */
+    public boolean hold(Long buyerId, Long productId, int quantity) {
+        if (!reservationRepository.hold(buyerId, productId, quantity, ttlSeconds).isEmpty()) {
+            return true;
+        }
+        refusedCounter.increment();
+        return false;
+    }
+
+    /** Units of each product that other buyers hold right now; products nobody holds are absent. */
+    public Map<Long, Integer> heldByOthers(Collection<Long> productIds, Long buyerId) {
+        Map<Long, Integer> held = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return held;
+        }
+        for (Object[] row : reservationRepository.sumHeldByOthers(productIds, buyerId)) {
+            held.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return held;
+    }
+
+    /** Stock of the product that the buyer could still hold: total stock minus other buyers' holds. */
+    public int available(Long productId, int stock, Long buyerId) {
+        return Math.max(0, stock - heldByOthers(List.of(productId), buyerId).getOrDefault(productId, 0));
+    }
+
+    public void release(Long buyerId, Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            reservationRepository.release(buyerId, productIds);
+        }
+    }
+
+    public void releaseAll(Long buyerId) {
+        reservationRepository.releaseAll(buyerId);
+    }
+
+    /**
+     * Deletes expired holds in batches, each its own statement and transaction, so a large backlog
+     * never holds many row locks at once. Runs even while reservations are disabled, to clear out
+     * holds left from when they were on.
+     */
+    @Scheduled(fixedDelayString = "${cart.reservations.sweep-interval-ms:60000}",
+            initialDelayString = "${cart.reservations.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        sweepTimer.record(() -> {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(SWEEP_SQL, sweepBatchSize);
+                expiredCounter.increment(deleted);
+            } while (deleted == sweepBatchSize);
+        });
+    }
+}
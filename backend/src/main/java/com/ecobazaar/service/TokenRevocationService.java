@@ -0,0 +1,101 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.AuthenticatedUser;
+import com.ecobazaar.entity.DeletedUser;
+import com.ecobazaar.repository.DeletedUserRepository;
+import com.ecobazaar.repository.RefreshTokenRepository;
+import com.ecobazaar.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the minimum accepted token version per user. Only users who have ever revoked their
+ * tokens appear here, so the table stays small and the per-request check is a single map lookup.
+ * Deleted users leave a tombstone row behind, which is how other nodes learn to reject them.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private DeletedUserRepository deletedUserRepository;
+
+    // Once every access token issued before a delete has expired, its tombstone is no longer needed
+    @Value("${jwt.expiration}")
+    private long accessTokenLifetimeMs;
+
+    private final ConcurrentHashMap<Long, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        reloadVersions();
+    }
+
+    /**
+     * Hot-path check used by the JWT filter. Reuses the boxed id already held by the principal,
+     * so it does not allocate.
+     */
+    public boolean isRevoked(AuthenticatedUser user) {
+        if (user.getId() == null) {
+            return false;
+        }
+        Integer minimum = minimumVersions.get(user.getId());
+        return minimum != null && user.getTokenVersion() < minimum;
+    }
+
+    // Commits on its own so a revocation survives the caller rolling back
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void revokeAll(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        refreshTokenRepository.revokeAllForUser(userId);
+        userRepository.findTokenVersionById(userId)
+                .ifPresent(version -> minimumVersions.merge(userId, version, Math::max));
+    }
+
+    // Joins the delete's transaction: the tombstone must not outlive a delete that rolled back
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revokeDeletedUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId);
+        deletedUserRepository.save(new DeletedUser(userId));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                minimumVersions.put(userId, Integer.MAX_VALUE);
+            }
+        });
+    }
+
+    // Picks up revocations and deletions made on other nodes; versions only ever move forward
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.refresh-interval-ms:30000}")
+    public void reloadVersions() {
+        for (Object[] row : userRepository.findRevokedTokenVersions()) {
+            minimumVersions.merge((Long) row[0], (Integer) row[1], Math::max);
+        }
+        for (Long userId : deletedUserRepository.findAllUserIds()) {
+            minimumVersions.put(userId, Integer.MAX_VALUE);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredRefreshTokens() {
+        refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        deletedUserRepository.deleteDeletedBefore(LocalDateTime.now().minusNanos(accessTokenLifetimeMs * 1_000_000));
+    }
+}
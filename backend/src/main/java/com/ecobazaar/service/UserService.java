@@ -3,14 +3,24 @@ package com.ecobazaar.service;
 import com.ecobazaar.dto.AuthResponse;
 import com.ecobazaar.dto.LoginRequest;
 import com.ecobazaar.dto.SignupRequest;
+import com.ecobazaar.entity.RefreshToken;
 import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.RefreshTokenRepository;
 import com.ecobazaar.repository.UserRepository;
 import com.ecobazaar.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Optional;
 
 @Service
@@ -21,41 +31,61 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UsernameAvailabilityService usernameAvailabilityService;
+
+    private static final String USERNAME_TAKEN = "Username is already taken!";
+    private static final String EMAIL_TAKEN = "Email is already in use!";
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // Not transactional: no connection is held while waiting on the hashing pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse signup(SignupRequest signupRequest) {
-        // Check if username already exists
-        if (userRepository.existsByUsername(signupRequest.getUsername())) {
-            throw new RuntimeException("Username is already taken!");
+        // Reject obvious duplicates before spending a hash; the database only sees Bloom filter hits
+        if (!usernameAvailabilityService.isUsernameAvailable(signupRequest.getUsername())) {
+            throw new RuntimeException(USERNAME_TAKEN);
         }
-
-        // Check if email already exists
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            throw new RuntimeException("Email is already in use!");
+        if (!usernameAvailabilityService.isEmailAvailable(signupRequest.getEmail())) {
+            throw new RuntimeException(EMAIL_TAKEN);
         }
 
         // Create new user
         User user = new User();
         user.setUsername(signupRequest.getUsername());
         user.setEmail(signupRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
+        user.setPassword(passwordHashingService.encode(signupRequest.getPassword()));
         // Set role from request, default to BUYER if invalid
         try {
             user.setRole(User.Role.valueOf(signupRequest.getRole().toUpperCase()));
         } catch (Exception e) {
             user.setRole(User.Role.BUYER);
         }
-        user = userRepository.save(user);
 
-        // Generate JWT token with role
-        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        // The unique constraints are the source of truth, so concurrent signups cannot both win
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(describeConflict(e));
+        }
+        usernameAvailabilityService.recordUsername(user.getUsername());
+        usernameAvailabilityService.recordEmail(user.getEmail());
 
-        return new AuthResponse(token, user.getUsername(), user.getRole().name(), "User registered successfully");
+        return issueTokens(user, "User registered successfully");
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest loginRequest) {
         Optional<User> userOptional = userRepository.findByUsername(loginRequest.getUsername());
 
@@ -66,14 +96,69 @@ public class UserService {
         User user = userOptional.get();
 
         // Verify password
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid username or password");
         }
 
+        return issueTokens(user, "Login successful");
+    }
+
+    public AuthResponse refresh(String rawRefreshToken) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hashToken(rawRefreshToken))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+
+        // Each refresh token is single use: losing the race or replaying one revokes the whole family
+        if (refreshToken.isRevoked() || refreshTokenRepository.markRevoked(refreshToken.getId()) == 0) {
+            tokenRevocationService.revokeAll(refreshToken.getUserId());
+            throw new RuntimeException("Refresh token has been revoked");
+        }
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Refresh token has expired");
+        }
+
+        User user = userRepository.findById(refreshToken.getUserId())
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+
+        return issueTokens(user, "Token refreshed");
+    }
+
+    public void logout(Long userId) {
+        tokenRevocationService.revokeAll(userId);
+    }
+
+    private AuthResponse issueTokens(User user, String message) {
         // Generate JWT token with role
-        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name(), user.getTokenVersion());
+
+        byte[] randomBytes = new byte[32];
+        secureRandom.nextBytes(randomBytes);
+        String rawRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(jwtUtil.getRefreshExpiration() * 1_000_000L);
+        refreshTokenRepository.save(new RefreshToken(user.getId(), hashToken(rawRefreshToken), expiresAt));
 
-        return new AuthResponse(token, user.getUsername(), user.getRole().name(), "Login successful");
+        AuthResponse response = new AuthResponse(token, user.getUsername(), user.getRole().name(), message);
+        response.setRefreshToken(rawRefreshToken);
+        return response;
+    }
+
+    private String describeConflict(DataIntegrityViolationException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (detail.contains("(username)")) {
+            return USERNAME_TAKEN;
+        }
+        if (detail.contains("(email)")) {
+            return EMAIL_TAKEN;
+        }
+        return "Username or email is already in use!";
+    }
+
+    private String hashToken(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public void deleteUser(Long userId) {
@@ -81,5 +166,6 @@ public class UserService {
             throw new RuntimeException("User not found");
         }
         userRepository.deleteById(userId);
+        tokenRevocationService.revokeDeletedUser(userId);
     }
 }
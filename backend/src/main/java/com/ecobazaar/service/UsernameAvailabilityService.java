@@ -0,0 +1,125 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.repository.UserRepository;
+import com.ecobazaar.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Answers "is this username / email taken?" from an in-memory Bloom filter built at startup.
+ * Only a possible hit is confirmed against the database.
+ *
+ * <p>Users created or changed on other nodes are picked up on a short interval, reading only rows
+ * updated since the previous pass (less an overlap for clock skew and slow commits), so a name
+ * registered elsewhere stops reading as available within about one interval. Signup itself never
+ * relies on a negative: the unique constraints on users reject a duplicate the filter missed.
+ */
+@Service
+public class UsernameAvailabilityService {
+
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+
+    private static final String ALL_SQL = "SELECT username, email FROM users";
+    private static final String CHANGED_SQL = "SELECT username, email FROM users WHERE updated_at >= ?";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auth.availability.expected-entries:1000000}")
+    private long expectedEntries;
+
+    @Value("${auth.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${auth.availability.refresh-overlap-ms:300000}")
+    private long refreshOverlapMs;
+
+    @Value("${auth.availability.fetch-size:1000}")
+    private int fetchSize;
+
+    private BloomFilter takenFilter;
+
+    private TransactionTemplate readTransaction;
+
+    // Start of the last pass over the users table; the next one reads rows updated since then
+    private volatile LocalDateTime lastLoad;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        takenFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+        LocalDateTime started = LocalDateTime.now();
+        load(ALL_SQL, null);
+        lastLoad = started;
+    }
+
+    // Picks up signups and email changes made on other nodes
+    @Scheduled(fixedDelayString = "${auth.availability.refresh-interval-ms:30000}",
+            initialDelayString = "${auth.availability.refresh-interval-ms:30000}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        load(CHANGED_SQL, Timestamp.valueOf(lastLoad.minusNanos(refreshOverlapMs * 1_000_000)));
+        lastLoad = started;
+    }
+
+    // Streams the rows through a forward-only cursor (PostgreSQL only honours the fetch size with
+    // auto-commit off), so startup never holds every username and email in memory at once
+    private void load(String sql, Timestamp since) {
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            if (since != null) {
+                statement.setTimestamp(1, since);
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            takenFilter.put(USERNAME_PREFIX + rs.getString(1));
+            takenFilter.put(EMAIL_PREFIX + rs.getString(2));
+        }));
+    }
+
+    public boolean mightBeTakenUsername(String username) {
+        return takenFilter.mightContain(USERNAME_PREFIX + username);
+    }
+
+    public boolean mightBeTakenEmail(String email) {
+        return takenFilter.mightContain(EMAIL_PREFIX + email);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        return !mightBeTakenUsername(username) || !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        return !mightBeTakenEmail(email) || !userRepository.existsByEmail(email);
+    }
+
+    public void recordUsername(String username) {
+        takenFilter.put(USERNAME_PREFIX + username);
+    }
+
+    public void recordEmail(String email) {
+        takenFilter.put(EMAIL_PREFIX + email);
+    }
+}
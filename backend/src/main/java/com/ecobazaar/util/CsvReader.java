@@ -0,0 +1,105 @@
+package com.ecobazaar.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, fields optionally quoted with {@code "},
+ * doubled quotes as escapes, quoted fields may span lines, and both LF and CRLF line endings.
+ * Reads one record at a time so input of any size can be processed in constant memory.
+ */
+public final class CsvReader {
+
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * The next record, or {@code null} at end of input. Blank lines are skipped.
+     *
+     * @throws IllegalArgumentException when a quoted field is not terminated or a field is too long
+     */
+    public List<String> next() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean sawAny = false;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (!sawAny) {
+                    return null;
+                }
+                record.add(field.toString());
+                return record;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    append((char) c);
+                }
+                continue;
+            }
+            if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                if (!sawAny) {
+                    continue;
+                }
+                record.add(field.toString());
+                return record;
+            }
+            sawAny = true;
+            if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else {
+                append((char) c);
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Field exceeds " + MAX_FIELD_LENGTH + " characters");
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecobazaar.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming RFC 4180 writer, the counterpart of {@link CsvReader}: fields are quoted only when
+ * they contain a comma, quote, line break or surrounding whitespace, and records end with CRLF.
+ * Nothing is buffered beyond the underlying writer.
+ */
+public final class CsvWriter {
+
+    private final Writer writer;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /** Appends a field to the current record; {@code null} is written as an empty field. */
+    public void field(String value) throws IOException {
+        if (!firstField) {
+            writer.write(',');
+        }
+        firstField = false;
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (!needsQuoting(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    public void endRecord() throws IOException {
+        writer.write("\r\n");
+        firstField = true;
+    }
+
+    private static boolean needsQuoting(String value) {
+        if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,14 +1,19 @@
 package com.ecobazaar.util;
 
+import com.ecobazaar.dto.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
 
 @Component
@@ -20,42 +25,106 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens that already passed signature verification, keyed by the raw compact token
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = new VerifiedTokenCache(cacheMaxEntries);
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /* ================= TOKEN GENERATION ================= */
 
-    public String generateToken(String username, String role) {
+    public String generateToken(Long userId, String username, String role, int tokenVersion) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
                 .subject(username)
+                .claim("uid", userId)
                 .claim("role", role)
+                .claim("ver", tokenVersion)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    public String generateToken(String username, String role) {
+        return generateToken(null, username, role, 0);
+    }
+
     // Default role
     public String generateToken(String username) {
         return generateToken(username, "BUYER");
     }
 
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    /* ================= VERIFICATION ================= */
+
+    /**
+     * Verifies the token signature and expiry once and returns the principal it carries.
+     * Repeat calls with the same token are answered from a bounded cache until the token expires.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public AuthenticatedUser verify(String token) {
+        long now = System.currentTimeMillis();
+        AuthenticatedUser cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.remove(token);
+        }
+
+        Claims claims = getAllClaimsFromToken(token);
+        Date expiry = claims.getExpiration();
+        Integer tokenVersion = claims.get("ver", Integer.class);
+        AuthenticatedUser user = new AuthenticatedUser(
+                claims.get("uid", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                tokenVersion != null ? tokenVersion : 0,
+                expiry != null ? expiry.getTime() : Long.MAX_VALUE);
+
+        verifiedTokens.put(token, user);
+        return user;
+    }
+
+    // Tokens currently cached, for tests
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
     /* ================= CLAIM EXTRACTION ================= */
 
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
 
     public String getRoleFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("role", String.class));
+        return verify(token).getRole();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return new Date(verify(token).getExpiresAt());
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
@@ -63,24 +132,93 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    /* ================= TOKEN PARSING (FIXED) ================= */
+    /* ================= TOKEN PARSING ================= */
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /* ================= VALIDATION ================= */
 
     public Boolean isTokenExpired(String token) {
-        return getExpirationDateFromToken(token).before(new Date());
+        return verify(token).isExpired(System.currentTimeMillis());
     }
 
     public Boolean validateToken(String token, String username) {
-        final String tokenUsername = getUsernameFromToken(token);
-        return tokenUsername.equals(username) && !isTokenExpired(token);
+        AuthenticatedUser user = verify(token);
+        return user.getUsername().equals(username) && !user.isExpired(System.currentTimeMillis());
+    }
+
+    /* ================= CACHE ================= */
+
+    /**
+     * Bounded LRU of verified tokens. Split into stripes, each an access-ordered map behind its own
+     * lock, so concurrent requests rarely contend; a full stripe drops its least recently used
+     * token. The stripe capacities add up to no more than the configured bound.
+     */
+    private static final class VerifiedTokenCache {
+
+        private static final int MAX_STRIPES = 16;
+
+        private final Stripe[] stripes;
+
+        VerifiedTokenCache(int maxEntries) {
+            int bound = Math.max(1, maxEntries);
+            stripes = new Stripe[Math.min(MAX_STRIPES, bound)];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe(bound / stripes.length);
+            }
+        }
+
+        AuthenticatedUser get(String token) {
+            Stripe stripe = stripeOf(token);
+            synchronized (stripe) {
+                return stripe.get(token);
+            }
+        }
+
+        void put(String token, AuthenticatedUser user) {
+            Stripe stripe = stripeOf(token);
+            synchronized (stripe) {
+                stripe.put(token, user);
+            }
+        }
+
+        void remove(String token) {
+            Stripe stripe = stripeOf(token);
+            synchronized (stripe) {
+                stripe.remove(token);
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.size();
+                }
+            }
+            return size;
+        }
+
+        private Stripe stripeOf(String token) {
+            int hash = token.hashCode();
+            return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, AuthenticatedUser> {
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AuthenticatedUser> eldest) {
+            return size() > capacity;
+        }
     }
 }
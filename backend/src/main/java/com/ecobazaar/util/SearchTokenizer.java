@@ -0,0 +1,49 @@
+package com.ecobazaar.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits product text into lower-case search terms: letters and digits only, very short words
+ * and common English stop words dropped, and a light plural stemming so "bottles" finds "bottle".
+ */
+public final class SearchTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with", "your", "our", "this", "that");
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addToken(tokens, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String word) {
+        if (word.length() < 2 || STOP_WORDS.contains(word)) {
+            return;
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+            word = word.substring(0, word.length() - 1);
+        }
+        tokens.add(word);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecobazaar.util;
+
+/**
+ * Classic token bucket. Each instance guards its own state, so contention is limited to
+ * callers sharing the same key.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastAccessNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    public synchronized boolean tryConsume(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+        if (tokens >= 1d) {
+            tokens -= 1d;
+            return true;
+        }
+        return false;
+    }
+
+    public long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
@@ -0,0 +1,15 @@
+-- One cart line per buyer and product. Runs on every start after Hibernate's DDL update and is
+-- idempotent: duplicate lines left by concurrent adds are folded into the oldest one, and the
+-- unique index the add-to-cart upsert relies on is created once no duplicates remain. A folded
+-- line is capped at the product's current stock (but kept at 1 or more), as an add would be.
+
+UPDATE cart_items c SET quantity = LEAST(d.total, GREATEST(COALESCE(p.quantity, d.total), 1))
+FROM (SELECT MIN(id) AS keep_id, product_id, SUM(quantity) AS total FROM cart_items
+      GROUP BY buyer_id, product_id HAVING COUNT(*) > 1) d
+     LEFT JOIN products p ON p.id = d.product_id
+WHERE c.id = d.keep_id;
+
+DELETE FROM cart_items c USING cart_items k
+WHERE k.buyer_id = c.buyer_id AND k.product_id = c.product_id AND k.id < c.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_cart_items_buyer_product ON cart_items (buyer_id, product_id);
@@ -0,0 +1,37 @@
+-- Moves tables created with IDENTITY ids onto the pooled sequences the entities now use.
+-- Runs on every start after Hibernate has created any missing sequences, and is idempotent:
+-- sequences only ever move forward, and the old identity/serial generators are dropped once.
+--
+-- Each sequence is advanced past the highest id already in its table (or left where it is if it
+-- is already further). The id columns default to the same sequence, so plain SQL inserts that
+-- omit the id cannot collide with the id blocks Hibernate reserves.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+DROP SEQUENCE IF EXISTS users_id_seq;
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM users_seq)));
+
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN id SET DEFAULT nextval('products_seq');
+DROP SEQUENCE IF EXISTS products_id_seq;
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products), (SELECT last_value FROM products_seq)));
+
+ALTER TABLE cart_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cart_items ALTER COLUMN id SET DEFAULT nextval('cart_items_seq');
+DROP SEQUENCE IF EXISTS cart_items_id_seq;
+SELECT setval('cart_items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM cart_items), (SELECT last_value FROM cart_items_seq)));
+
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id SET DEFAULT nextval('orders_seq');
+DROP SEQUENCE IF EXISTS orders_id_seq;
+SELECT setval('orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders), (SELECT last_value FROM orders_seq)));
+
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_items ALTER COLUMN id SET DEFAULT nextval('order_items_seq');
+DROP SEQUENCE IF EXISTS order_items_id_seq;
+SELECT setval('order_items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM order_items), (SELECT last_value FROM order_items_seq)));
+
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE refresh_tokens ALTER COLUMN id SET DEFAULT nextval('refresh_tokens_seq');
+DROP SEQUENCE IF EXISTS refresh_tokens_id_seq;
+SELECT setval('refresh_tokens_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM refresh_tokens), (SELECT last_value FROM refresh_tokens_seq)));
@@ -0,0 +1,19 @@
+package com.ecobazaar;
+
+import java.lang.management.ManagementFactory;
+
+/** Bytes allocated by the current thread, for tests that compare the allocation of two code paths. */
+public final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() {
+    }
+
+    public static long allocatedBytes(Runnable work) {
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        work.run();
+        return THREADS.getCurrentThreadAllocatedBytes() - before;
+    }
+}
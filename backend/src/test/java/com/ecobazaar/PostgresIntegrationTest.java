@@ -0,0 +1,87 @@
+package com.ecobazaar;
+
+import com.ecobazaar.entity.Product;
+import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.ProductRepository;
+import com.ecobazaar.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for tests that need the application running against PostgreSQL. One embedded server is
+ * started per JVM and every subclass shares the same Spring context, so each test creates its own
+ * users and products rather than relying on a clean database.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Scheduled jobs would add their statements to the shared Hibernate statistics
+        "app.scheduling.enabled=false"
+})
+@AutoConfigureMockMvc
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> POSTGRES.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Hibernate statistics, cleared; read them after the code under test has run. */
+    protected Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    protected User createUser(User.Role role) {
+        String name = role.name().toLowerCase() + "-" + NAMES.incrementAndGet() + "-" + System.nanoTime();
+        User user = new User(name, name + "@example.com", "not-a-real-hash");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    protected Product createApprovedProduct(Long sellerId, String price, int quantity) {
+        Product product = new Product("Product " + NAMES.incrementAndGet(), "test product", new BigDecimal(price),
+                null, quantity, new BigDecimal("5.0"), sellerId);
+        product.setStatus(Product.Status.APPROVED);
+        product.setCarbonFootprint(new BigDecimal("1.50"));
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecobazaar.controller;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.entity.CartItem;
+import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.CartItemRepository;
+import com.ecobazaar.util.JwtUtil;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CartReadQueryCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 40})
+    void cartIsReadInOneStatementWhateverItsSize(int lines) throws Exception {
+        User buyer = createUser(User.Role.BUYER);
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        List<CartItem> cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            cart.add(new CartItem(buyer.getId(), createApprovedProduct(sellerId, "3.00", 10).getId(), 2));
+        }
+        cartItemRepository.saveAll(cart);
+        String token = jwtUtil.generateToken(buyer.getId(), buyer.getUsername(), "BUYER", 0);
+
+        Statistics statistics = statistics();
+        mockMvc.perform(get("/api/buyer/cart").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(lines)));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
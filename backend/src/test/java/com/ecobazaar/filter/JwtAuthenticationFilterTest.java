@@ -0,0 +1,81 @@
+package com.ecobazaar.filter;
+
+import com.ecobazaar.dto.AuthenticatedUser;
+import com.ecobazaar.service.TokenRevocationService;
+import com.ecobazaar.util.JwtUtil;
+import com.ecobazaar.util.JwtUtilFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationService revocations;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(JwtUtilFixture.newJwtUtil());
+
+        revocations = mock(TokenRevocationService.class);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", revocations);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void verifiesTheTokenOnceAndAuthenticatesTheRequest() throws Exception {
+        String token = jwtUtil.generateToken(7L, "buyer", "BUYER", 0);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(jwtUtil, times(1)).verify(token);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isInstanceOf(AuthenticatedUser.class);
+        assertThat(((AuthenticatedUser) authentication.getPrincipal()).getId()).isEqualTo(7L);
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_BUYER");
+    }
+
+    @Test
+    void revokedTokensLeaveTheRequestAnonymous() throws Exception {
+        when(revocations.isRevoked(any())).thenReturn(true);
+
+        filter.doFilter(request(jwtUtil.generateToken(7L, "buyer", "BUYER", 0)),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void invalidTokensLeaveTheRequestAnonymous() throws Exception {
+        filter.doFilter(request("not-a-jwt"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/buyer/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
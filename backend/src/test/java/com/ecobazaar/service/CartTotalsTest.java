@@ -0,0 +1,124 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.dto.CartItemDTO;
+import com.ecobazaar.dto.CartOperation;
+import com.ecobazaar.dto.CartSummaryDTO;
+import com.ecobazaar.entity.CartItem;
+import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.CartItemRepository;
+import com.ecobazaar.repository.CartTotalsRepository;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartTotalsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartTotalsRepository cartTotalsRepository;
+
+    @Test
+    void everyCartWriteKeepsTheStoredTotalsInStep() {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        Long first = createApprovedProduct(sellerId, "2.50", 100).getId();
+        Long second = createApprovedProduct(sellerId, "4.00", 100).getId();
+        Long third = createApprovedProduct(sellerId, "0.99", 100).getId();
+
+        CartItemDTO firstLine = cartService.addToCart(buyerId, first, 2);
+        assertStored(buyerId, 2, 1, "5.00", "3.00");
+        cartService.addToCart(buyerId, first, 1);
+        assertStored(buyerId, 3, 1, "7.50", "4.50");
+        CartItemDTO secondLine = cartService.addToCart(buyerId, second, 1);
+        assertStored(buyerId, 4, 2, "11.50", "6.00");
+        cartService.updateCartItem(buyerId, firstLine.getId(), 5);
+        assertStored(buyerId, 6, 2, "16.50", "9.00");
+        cartService.updateCart(buyerId, List.of(
+                new CartOperation("add", third, null, 2),
+                new CartOperation("remove", null, secondLine.getId(), null)));
+        assertStored(buyerId, 7, 2, "14.48", "10.50");
+        cartService.removeFromCart(buyerId, firstLine.getId());
+        assertStored(buyerId, 2, 1, "1.98", "3.00");
+
+        orderService.checkout(buyerId);
+        assertStored(buyerId, 0, 0, "0", "0");
+    }
+
+    @Test
+    void summaryIsOnePrimaryKeyRead() {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        for (int i = 0; i < 20; i++) {
+            cartService.addToCart(buyerId, createApprovedProduct(sellerId, "1.00", 10).getId(), 1);
+        }
+
+        Statistics statistics = statistics();
+        CartSummaryDTO summary = cartService.getCartSummary(buyerId);
+
+        assertThat(summary.getLineCount()).isEqualTo(20);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void deletingAProductRecalculatesTheCartsHoldingIt() {
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        Long kept = createApprovedProduct(sellerId, "3.00", 10).getId();
+        Long deleted = createApprovedProduct(sellerId, "7.00", 10).getId();
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long otherBuyerId = createUser(User.Role.BUYER).getId();
+        cartService.addToCart(buyerId, kept, 1);
+        cartService.addToCart(buyerId, deleted, 2);
+        cartService.addToCart(otherBuyerId, deleted, 1);
+
+        productService.deleteProduct(deleted);
+
+        assertStored(buyerId, 1, 1, "3.00", "1.50");
+        assertStored(otherBuyerId, 0, 0, "0", "0");
+    }
+
+    @Test
+    void cartWithoutStoredTotalsIsSummedUntilItsFirstWrite() {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        Long existing = createApprovedProduct(sellerId, "2.00", 10).getId();
+        cartItemRepository.save(new CartItem(buyerId, existing, 3));
+
+        assertThat(cartTotalsRepository.findById(buyerId)).isEmpty();
+        assertSummary(cartService.getCartSummary(buyerId), 3, 1, "6.00", "4.50");
+
+        cartService.addToCart(buyerId, createApprovedProduct(sellerId, "1.00", 10).getId(), 1);
+        assertStored(buyerId, 4, 2, "7.00", "6.00");
+    }
+
+    private void assertStored(Long buyerId, int units, int lines, String amount, String carbon) {
+        assertThat(cartTotalsRepository.findById(buyerId)).isPresent();
+        assertSummary(cartService.getCartSummary(buyerId), units, lines, amount, carbon);
+        // And the stored row agrees with the cart itself
+        assertSummary(CartTotalsService.summarize(cartService.getCartItems(buyerId)), units, lines, amount, carbon);
+    }
+
+    private static void assertSummary(CartSummaryDTO summary, int units, int lines, String amount, String carbon) {
+        assertThat(summary.getItemCount()).isEqualTo(units);
+        assertThat(summary.getLineCount()).isEqualTo(lines);
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo(new BigDecimal(amount));
+        assertThat(summary.getTotalCarbonFootprint()).isEqualByComparingTo(new BigDecimal(carbon));
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.dto.CartOperation;
+import com.ecobazaar.entity.CartItem;
+import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.CartItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartUpsertConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Test
+    void concurrentAddsOfOneProductEndUpOnOneLine() throws Exception {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long productId = createApprovedProduct(createUser(User.Role.SELLER).getId(), "2.50", 1_000).getId();
+
+        List<Boolean> added = race(() -> {
+            for (int i = 0; i < 5; i++) {
+                cartService.addToCart(buyerId, productId, 1);
+            }
+            return true;
+        });
+
+        assertThat(added).containsOnly(true);
+        List<CartItem> lines = cartItemRepository.findByBuyerId(buyerId);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getQuantity()).isEqualTo(THREADS * 5);
+    }
+
+    @Test
+    void concurrentAddsNeverExceedTheStock() throws Exception {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long productId = createApprovedProduct(createUser(User.Role.SELLER).getId(), "2.50", 10).getId();
+
+        List<Boolean> added = race(() -> {
+            try {
+                cartService.addToCart(buyerId, productId, 1);
+                return true;
+            } catch (RuntimeException e) {
+                assertThat(e).hasMessageStartingWith("Insufficient stock");
+                return false;
+            }
+        });
+
+        assertThat(added.stream().filter(Boolean::booleanValue)).hasSize(10);
+        List<CartItem> lines = cartItemRepository.findByBuyerId(buyerId);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void batchedAndSingleAddsFromSeveralTabsLoseNoIncrement() throws Exception {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long productId = createApprovedProduct(createUser(User.Role.SELLER).getId(), "2.50", 1_000).getId();
+        AtomicInteger tabs = new AtomicInteger();
+
+        List<Boolean> added = race(() -> {
+            boolean batched = tabs.getAndIncrement() % 2 == 0;
+            for (int i = 0; i < 5; i++) {
+                if (batched) {
+                    cartService.updateCart(buyerId, List.of(new CartOperation("add", productId, null, 1)));
+                } else {
+                    cartService.addToCart(buyerId, productId, 1);
+                }
+            }
+            return true;
+        });
+
+        assertThat(added).containsOnly(true);
+        List<CartItem> lines = cartItemRepository.findByBuyerId(buyerId);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getQuantity()).isEqualTo(THREADS * 5);
+    }
+
+    @Test
+    void quantitiesBelowOneAreRejected() {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        Long productId = createApprovedProduct(createUser(User.Role.SELLER).getId(), "2.50", 10).getId();
+
+        assertThatThrownBy(() -> cartService.addToCart(buyerId, productId, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Quantity must be at least 1");
+        assertThat(cartItemRepository.findByBuyerId(buyerId)).isEmpty();
+    }
+
+    // Runs the task on every thread at once and returns each thread's result
+    private static List<Boolean> race(Callable<Boolean> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>(THREADS);
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
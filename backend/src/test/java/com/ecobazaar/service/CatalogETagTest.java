@@ -0,0 +1,56 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.entity.Product;
+import com.ecobazaar.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogETagTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void scheduledRebuildKeepsTheTagWhileNothingChanged() {
+        catalogSnapshotService.refresh();
+        String before = productService.getCatalogETag();
+
+        catalogSnapshotService.refresh();
+
+        assertThat(productService.getCatalogETag()).isEqualTo(before);
+    }
+
+    @Test
+    void tagMatchesWhatAnotherNodeBuildsFromTheSameRows() {
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        Product kept = createApprovedProduct(sellerId, "4.00", 3);
+        Product deleted = createApprovedProduct(sellerId, "6.00", 3);
+        catalogSnapshotService.refresh();
+        String before = productService.getCatalogETag();
+        assertThat(before).isEqualTo(tagOf(freshBuild()));
+
+        // Patched in place after commit on this node
+        productService.deleteProduct(deleted.getId());
+
+        String after = productService.getCatalogETag();
+        assertThat(after).isNotEqualTo(before).isEqualTo(tagOf(freshBuild()));
+        assertThat(catalogSnapshotService.current().get(kept.getId())).isNotNull();
+    }
+
+    // What a second node with its own startup build would hold
+    private CatalogSnapshot freshBuild() {
+        return CatalogSnapshot.build(productRepository.findByStatus(Product.Status.APPROVED).stream()
+                .map(product -> CatalogEntry.of(product, ProductService.convertToDTO(product)))
+                .toList());
+    }
+
+    private static String tagOf(CatalogSnapshot snapshot) {
+        return "\"c" + Long.toHexString(snapshot.getVersion()) + "\"";
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.FacetBucketDTO;
+import com.ecobazaar.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogFacetIndexTest {
+
+    private CatalogFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogFacetIndex();
+        ReflectionTestUtils.setField(index, "priceEdges", "0,10,25");
+        ReflectionTestUtils.setField(index, "ecoRatingEdges", "0,5");
+        ReflectionTestUtils.setField(index, "carbonFootprintEdges", "0,1,2");
+        index.init();
+        index.rebuild(CatalogSnapshot.build(List.of(entry(1, "5.00"), entry(2, "15.00"))));
+    }
+
+    @Test
+    void boundsOnEdgesGiveExactCounts() {
+        CatalogFilter filter = new CatalogFilter(null, new BigDecimal("10"), null, null, null, null);
+
+        assertThat(ecoRatingTotal(filter)).isEqualTo(1);
+        assertThat(index.approximateFacets(filter)).isEmpty();
+    }
+
+    @Test
+    void aBoundBetweenEdgesMarksTheOtherFacetsApproximate() {
+        // 12 falls inside [10, 25), so the whole slot holding the 15.00 product is counted
+        CatalogFilter filter = new CatalogFilter(null, new BigDecimal("12"), null, null, null, null);
+
+        assertThat(ecoRatingTotal(filter)).isEqualTo(2);
+        assertThat(index.approximateFacets(filter))
+                .containsExactly(CatalogFacetIndex.ECO_RATING, CatalogFacetIndex.CARBON_FOOTPRINT);
+    }
+
+    private long ecoRatingTotal(CatalogFilter filter) {
+        return index.facets(filter).get(CatalogFacetIndex.ECO_RATING).stream()
+                .mapToLong(FacetBucketDTO::getCount)
+                .sum();
+    }
+
+    private static CatalogEntry entry(long id, String price) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        LocalDateTime created = LocalDateTime.of(2026, 1, 1, 0, 0);
+        return new CatalogEntry(id, created, created, new BigDecimal(price), new BigDecimal("5.0"),
+                new BigDecimal("1.50"), product);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.entity.CartItem;
+import com.ecobazaar.entity.OrderItem;
+import com.ecobazaar.entity.Product;
+import com.ecobazaar.entity.User;
+import com.ecobazaar.repository.CartItemRepository;
+import com.ecobazaar.repository.OrderItemRepository;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckoutBatchingTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Test
+    void checkoutStatementCountDoesNotGrowWithTheCart() {
+        long small = checkoutStatements(5);
+        long large = checkoutStatements(50);
+
+        // One more is allowed for a sequence call when the id block runs out mid-checkout
+        assertThat(large).as("statements for 5 lines: %d, for 50 lines: %d", small, large)
+                .isLessThanOrEqualTo(small + 1)
+                .isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void fiftyLineCheckoutWritesEveryLine() {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        List<Product> products = fillCart(buyerId, 50);
+
+        Map<String, Object> order = orderService.checkout(buyerId);
+
+        List<OrderItem> items = orderItemRepository.findByOrderId((Long) order.get("orderId"));
+        assertThat(items).hasSize(50);
+        assertThat(cartItemRepository.findByBuyerId(buyerId)).isEmpty();
+        assertThat(productRepository.findAllById(products.stream().map(Product::getId).toList()))
+                .allSatisfy(product -> assertThat(product.getQuantity()).isEqualTo(8));
+    }
+
+    private long checkoutStatements(int lines) {
+        Long buyerId = createUser(User.Role.BUYER).getId();
+        fillCart(buyerId, lines);
+
+        Statistics statistics = statistics();
+        orderService.checkout(buyerId);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Product> fillCart(Long buyerId, int lines) {
+        Long sellerId = createUser(User.Role.SELLER).getId();
+        List<Product> products = new ArrayList<>(lines);
+        List<CartItem> cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Product product = createApprovedProduct(sellerId, "4.25", 10);
+            products.add(product);
+            cart.add(new CartItem(buyerId, product.getId(), 2));
+        }
+        cartItemRepository.saveAll(cart);
+        return products;
+    }
+}
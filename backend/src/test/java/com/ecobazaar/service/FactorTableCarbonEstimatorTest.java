@@ -0,0 +1,73 @@
+package com.ecobazaar.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FactorTableCarbonEstimatorTest {
+
+    @Test
+    void shippedTablesReproduceTheOldLinearFormula() {
+        CarbonEstimator estimator = estimator(new ClassPathResource("carbon-factors.properties"));
+
+        for (int step = 0; step <= 100; step++) {
+            BigDecimal rating = BigDecimal.valueOf(step, 1);
+            BigDecimal linear = BigDecimal.valueOf(15).subtract(rating.multiply(new BigDecimal("1.49")))
+                    .max(new BigDecimal("0.1"))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertThat(estimator.estimate(rating, new BigDecimal("19.99"))).as("eco rating %s", rating)
+                    .isEqualByComparingTo(linear);
+        }
+    }
+
+    @Test
+    void interpolatesBetweenAnchorsAndScalesByPriceBand() {
+        CarbonEstimator estimator = estimator(tables("eco-rating=0:20,5:10,10:2\n"
+                + "price-edges=10,100\nprice-multipliers=0.5,1,3\nminimum=2\n"));
+
+        assertThat(estimator.estimate(new BigDecimal("2.5"), new BigDecimal("50"))).isEqualByComparingTo("15.00");
+        assertThat(estimator.estimate(new BigDecimal("2.5"), new BigDecimal("5"))).isEqualByComparingTo("7.50");
+        assertThat(estimator.estimate(new BigDecimal("2.5"), new BigDecimal("100"))).isEqualByComparingTo("45.00");
+        // 2 kg at rating 10, halved, then floored at the minimum
+        assertThat(estimator.estimate(new BigDecimal("10"), new BigDecimal("1"))).isEqualByComparingTo("2.00");
+        assertThat(estimator.estimate(new BigDecimal("7.5"), null)).isEqualByComparingTo("3.00");
+    }
+
+    @Test
+    void reloadPicksUpChangedTables() {
+        FactorTableCarbonEstimator estimator = estimator(tables("eco-rating=0:10\nprice-multipliers=1\n"));
+        assertThat(estimator.estimate(BigDecimal.ONE, BigDecimal.ONE)).isEqualByComparingTo("10.00");
+
+        ReflectionTestUtils.setField(estimator, "location", tables("eco-rating=0:4\nprice-multipliers=1\n"));
+        estimator.reload();
+
+        assertThat(estimator.estimate(BigDecimal.ONE, BigDecimal.ONE)).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void rejectsMismatchedMultipliers() {
+        assertThatThrownBy(() -> estimator(tables("eco-rating=0:10\nprice-edges=10\nprice-multipliers=1\n")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("multipliers");
+    }
+
+    private static Resource tables(String properties) {
+        return new ByteArrayResource(properties.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static FactorTableCarbonEstimator estimator(Resource tables) {
+        FactorTableCarbonEstimator estimator = new FactorTableCarbonEstimator();
+        ReflectionTestUtils.setField(estimator, "location", tables);
+        estimator.reload();
+        return estimator;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductAlternativesIndexTest {
+
+    private static final int CANDIDATES_PER_TERM = 20;
+
+    @Test
+    void productsInABusyCategoryStillGetTheirNearestAlternatives() {
+        // Every product shares the same two terms, far more often than the per-term window
+        List<CatalogEntry> entries = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            entries.add(entry(id, "Organic tote", BigDecimal.valueOf(id)));
+        }
+        ProductAlternativesIndex index = newIndex(10);
+        index.rebuild(CatalogSnapshot.build(entries));
+
+        // Only the nearest footprints below are candidates; equal scores rank the lower footprint first
+        assertThat(index.alternativesOf(300, 3)).containsExactly(280L, 281L, 282L);
+        assertThat(index.alternativesOf(1, 3)).isEmpty();
+    }
+
+    @Test
+    void anAddedProductIsOfferedToTheNeighboursItBeats() {
+        List<CatalogEntry> entries = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            entries.add(entry(id, "Organic tote", BigDecimal.valueOf(id * 10)));
+        }
+        // Long enough lists to hold the whole window, so the newcomer always has room
+        ProductAlternativesIndex index = newIndex(CANDIDATES_PER_TERM * 2);
+        index.rebuild(CatalogSnapshot.build(entries));
+
+        index.update(null, entry(1000, "Organic tote", new BigDecimal("2995")));
+
+        assertThat(index.alternativesOf(300, CANDIDATES_PER_TERM * 2)).contains(1000L);
+        assertThat(index.alternativesOf(1000, CANDIDATES_PER_TERM * 2)).contains(299L).doesNotContain(300L);
+    }
+
+    private static ProductAlternativesIndex newIndex(int perProduct) {
+        ProductAlternativesIndex index = new ProductAlternativesIndex();
+        ReflectionTestUtils.setField(index, "perProduct", perProduct);
+        ReflectionTestUtils.setField(index, "candidatesPerTerm", CANDIDATES_PER_TERM);
+        return index;
+    }
+
+    private static CatalogEntry entry(long id, String name, BigDecimal carbonFootprint) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setName(name);
+        LocalDateTime created = LocalDateTime.of(2026, 1, 1, 0, 0);
+        return new CatalogEntry(id, created, created, new BigDecimal("20.00"), new BigDecimal("5.0"),
+                carbonFootprint, product);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.dto.ProductDTO;
+import com.ecobazaar.entity.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.ecobazaar.AllocationMeter.allocatedBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The seller list read as DTO projections. Latency and allocation per read for both paths are
+ * measured by ProductProjectionBenchmark in the benchmarks profile; here only the shape of the
+ * read and which path allocates less are checked, against rows inserted once for the class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductProjectionTest extends PostgresIntegrationTest {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long sellerId;
+
+    @BeforeAll
+    void insertProducts() {
+        sellerId = createUser(User.Role.SELLER).getId();
+        jdbcTemplate.update("INSERT INTO products (name, description, price, quantity, eco_rating, status, seller_id, "
+                + "carbon_footprint, carbon_footprint_estimated, created_at, updated_at) "
+                + "SELECT 'Product ' || g, 'projection test', 9.99, 10, 5.0, 'PENDING', ?, 1.50, false, now(), now() "
+                + "FROM generate_series(1, ?) g", sellerId, PRODUCTS);
+    }
+
+    @AfterAll
+    void deleteProducts() {
+        jdbcTemplate.update("DELETE FROM products WHERE seller_id = ?", sellerId);
+    }
+
+    @Test
+    void sellerListIsProjectedWithoutLoadingEntities() {
+        Statistics statistics = statistics();
+
+        List<ProductDTO> products = productService.getProductsBySeller(sellerId);
+
+        assertThat(products).hasSize(PRODUCTS);
+        assertThat(products.get(0).getCreatedAt()).isNotNull();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void projectionAllocatesLessThanLoadingEntities() {
+        // Warm both paths up so class loading and query plan caching are not measured
+        productService.getProductsBySeller(sellerId);
+        loadEntitiesAndConvert();
+
+        long projected = allocatedBytes(() -> productService.getProductsBySeller(sellerId));
+        long loaded = allocatedBytes(this::loadEntitiesAndConvert);
+
+        assertThat(projected).as("bytes allocated for %d products: projected %d, entities %d", PRODUCTS, projected, loaded)
+                .isLessThan(loaded);
+    }
+
+    // The read as it was before projections: managed entities in a read-write transaction, copied to DTOs
+    private List<ProductDTO> loadEntitiesAndConvert() {
+        return transactionTemplate.execute(status -> productRepository.findBySellerId(sellerId).stream()
+                .map(ProductService::convertToDTO)
+                .toList());
+    }
+}
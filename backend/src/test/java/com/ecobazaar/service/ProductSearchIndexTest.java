@@ -0,0 +1,78 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private static final String[] WORDS = {"bamboo", "cotton", "organic", "bottle", "steel", "soap"};
+
+    private static final CatalogFilter NO_FILTER = new CatalogFilter(null, null, null, null, null, null);
+
+    @Test
+    void patchedIndexMatchesTheSameProductsAsAFullRebuild() {
+        Random random = new Random(42);
+        Map<Long, CatalogEntry> catalog = new TreeMap<>();
+        for (long id = 1; id <= 3_000; id++) {
+            catalog.put(id, entry(id, randomName(random)));
+        }
+        ProductSearchIndex patched = new ProductSearchIndex();
+        patched.rebuild(CatalogSnapshot.build(catalog.values()));
+
+        // Enough inserts and removals to split and empty chunks throughout every term's postings
+        for (int i = 0; i < 6_000; i++) {
+            long id = 1 + random.nextInt(4_000);
+            CatalogEntry before = catalog.get(id);
+            CatalogEntry after = random.nextInt(3) == 0 ? null : entry(id, randomName(random));
+            if (before == null && after == null) {
+                continue;
+            }
+            patched.update(before, after);
+            if (after == null) {
+                catalog.remove(id);
+            } else {
+                catalog.put(id, after);
+            }
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.build(catalog.values());
+        ProductSearchIndex rebuilt = new ProductSearchIndex();
+        rebuilt.rebuild(snapshot);
+        for (String query : List.of("organic", "organic cotton", "bamboo steel soap", "bottle organic cotton")) {
+            ProductSearchIndex.Result expected = rebuilt.search(query, NO_FILTER, snapshot, 0, 50);
+            ProductSearchIndex.Result actual = patched.search(query, NO_FILTER, snapshot, 0, 50);
+
+            assertThat(actual.total()).as(query).isEqualTo(expected.total()).isPositive();
+            assertThat(actual.ids()).as(query).isEqualTo(expected.ids());
+        }
+    }
+
+    private static String randomName(Random random) {
+        List<String> words = new ArrayList<>();
+        for (String word : WORDS) {
+            if (random.nextInt(3) > 0) {
+                words.add(word);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    private static CatalogEntry entry(long id, String name) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setName(name);
+        LocalDateTime created = LocalDateTime.of(2026, 1, 1, 0, 0);
+        return new CatalogEntry(id, created, created, new BigDecimal("9.99"), new BigDecimal("5.0"),
+                new BigDecimal("1.50"), product);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.dto.AuthenticatedUser;
+import com.ecobazaar.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void anotherNodeRejectsTokensOfAUserDeletedElsewhere() {
+        User user = createUser(User.Role.BUYER);
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), "BUYER", 0,
+                System.currentTimeMillis() + 60_000);
+
+        userService.deleteUser(user.getId());
+        assertThat(tokenRevocationService.isRevoked(principal)).isTrue();
+
+        // A node that did not handle the delete only has what it reloads from the database
+        Map<?, ?> minimumVersions = (Map<?, ?>) ReflectionTestUtils.getField(tokenRevocationService, "minimumVersions");
+        minimumVersions.clear();
+        tokenRevocationService.reloadVersions();
+
+        assertThat(tokenRevocationService.isRevoked(principal)).isTrue();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecobazaar.service;
+
+import com.ecobazaar.PostgresIntegrationTest;
+import com.ecobazaar.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameAvailabilityTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UsernameAvailabilityService usernameAvailabilityService;
+
+    @Test
+    void signupOnAnotherNodeIsSeenAfterTheNextRefresh() {
+        // Saved straight through the repository, as another node would, so this node's filter is not told
+        User user = createUser(User.Role.BUYER);
+
+        usernameAvailabilityService.refresh();
+
+        assertThat(usernameAvailabilityService.mightBeTakenUsername(user.getUsername())).isTrue();
+        assertThat(usernameAvailabilityService.mightBeTakenEmail(user.getEmail())).isTrue();
+        assertThat(usernameAvailabilityService.isUsernameAvailable(user.getUsername())).isFalse();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecobazaar.util;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** A {@link JwtUtil} configured the way Spring would, for tests and benchmarks that run without a context. */
+public final class JwtUtilFixture {
+
+    public static final String SECRET = "test-secret-key-that-is-long-enough-for-hs512-signing-0123456789";
+
+    private JwtUtilFixture() {
+    }
+
+    public static JwtUtil newJwtUtil() {
+        return newJwtUtil(900_000L, 10_000);
+    }
+
+    public static JwtUtil newJwtUtil(long expiration, int cacheMaxEntries) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "refreshExpiration", 2_592_000_000L);
+        ReflectionTestUtils.setField(util, "cacheMaxEntries", cacheMaxEntries);
+        ReflectionTestUtils.invokeMethod(util, "init");
+        return util;
+    }
+}
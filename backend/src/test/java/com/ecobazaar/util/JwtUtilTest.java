@@ -0,0 +1,86 @@
+package com.ecobazaar.util;
+
+import com.ecobazaar.dto.AuthenticatedUser;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.ecobazaar.util.JwtUtilFixture.newJwtUtil;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(900_000L, 10_000);
+    }
+
+    @Test
+    void verifyReturnsTheClaimsCarriedByTheToken() {
+        AuthenticatedUser user = jwtUtil.verify(jwtUtil.generateToken(42L, "buyer", "BUYER", 3));
+
+        assertThat(user.getId()).isEqualTo(42L);
+        assertThat(user.getUsername()).isEqualTo("buyer");
+        assertThat(user.getRole()).isEqualTo("BUYER");
+        assertThat(user.getTokenVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void repeatVerificationIsServedFromTheCache() {
+        String token = jwtUtil.generateToken(42L, "buyer", "BUYER", 0);
+
+        AuthenticatedUser first = jwtUtil.verify(token);
+
+        // The same instance comes back, so the signature was not checked again
+        assertThat(jwtUtil.verify(token)).isSameAs(first);
+        assertThat(jwtUtil.getUsernameFromToken(token)).isEqualTo("buyer");
+        assertThat(jwtUtil.validateToken(token, "buyer")).isTrue();
+        assertThat(jwtUtil.verify(token)).isSameAs(first);
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        String token = jwtUtil.generateToken(42L, "buyer", "BUYER", 0);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.verify(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        JwtUtil expiring = newJwtUtil(-1_000L, 10_000);
+
+        assertThatThrownBy(() -> expiring.verify(expiring.generateToken(42L, "buyer", "BUYER", 0)))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void cacheNeverGrowsPastItsBound() {
+        JwtUtil bounded = newJwtUtil(900_000L, 2);
+
+        for (long id = 0; id < 10; id++) {
+            bounded.verify(bounded.generateToken(id, "user" + id, "BUYER", 0));
+        }
+
+        assertThat(bounded.cachedTokenCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void aFullCacheDropsTheLeastRecentlyUsedToken() {
+        // A single-entry cache has a single stripe, so which token is dropped does not depend on hashing
+        JwtUtil single = newJwtUtil(900_000L, 1);
+        String first = single.generateToken(1L, "first", "BUYER", 0);
+        String second = single.generateToken(2L, "second", "BUYER", 0);
+
+        AuthenticatedUser kept = single.verify(first);
+        AuthenticatedUser newest = single.verify(second);
+
+        assertThat(single.verify(second)).isSameAs(newest);
+        assertThat(single.verify(first)).isNotSameAs(kept);
+        assertThat(single.cachedTokenCount()).isEqualTo(1);
+    }
+}
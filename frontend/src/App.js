@@ -1,9 +1,11 @@
 import { useState, useEffect } from 'react';
 import './App.css';
-import { login, signup } from './api';
+import { login, signup, logout, refreshSession } from './api';
 import { 
   getToken, 
   setToken, 
+  setRefreshToken,
+  getRefreshToken,
   removeToken, 
   setUsername, 
   setRole, 
@@ -97,6 +99,9 @@ function LoginForm({ onSuccess }) {
       const data = await login({ username, password });
       if (data.token) {
         setToken(data.token);
+        if (data.refreshToken) {
+          setRefreshToken(data.refreshToken);
+        }
         setUsername(data.username || username);
         if (data.role) {
           setRole(data.role);
@@ -177,6 +182,9 @@ function SignupForm({ onSuccess }) {
       const data = await signup({ username, email, password, role });
       if (data.token) {
         setToken(data.token);
+        if (data.refreshToken) {
+          setRefreshToken(data.refreshToken);
+        }
         setUsername(data.username || username);
         if (data.role) {
           setRole(data.role);
@@ -274,8 +282,18 @@ function App() {
       setUserRole(null);
     }
     
-    // Check token expiration every minute
-    const interval = setInterval(() => {
+    // Check token expiration every minute and renew it shortly before it runs out
+    const interval = setInterval(async () => {
+      const currentToken = getToken();
+      const expiresAt = currentToken ? getTokenExpirationTime(currentToken) : null;
+      if (currentToken && getRefreshToken() && expiresAt && expiresAt - Date.now() < 120000) {
+        try {
+          await refreshSession();
+          return;
+        } catch (error) {
+          // Fall through to the expiry check below
+        }
+      }
       if (!isTokenValid()) {
         removeToken();
         setIsAuthenticated(false);
@@ -305,6 +323,9 @@ function App() {
   }
 
   function handleLogout() {
+    if (getToken()) {
+      logout().catch(() => {});
+    }
     removeToken();
     setIsAuthenticated(false);
     setUserRole(null);
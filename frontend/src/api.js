@@ -1,4 +1,4 @@
-import { getToken, removeToken } from './utils/tokenUtils';
+import { getToken, removeToken, getRefreshToken, setToken, setRefreshToken } from './utils/tokenUtils';
 
 const API_BASE_URL = 'http://localhost:8080';
 
@@ -65,6 +65,34 @@ export async function login({ username, password }) {
   return handleResponse(response);
 }
 
+// Exchange the stored refresh token for a new access token (the refresh token rotates too)
+export async function refreshSession() {
+  const refreshToken = getRefreshToken();
+  if (!refreshToken) {
+    throw new Error('Session expired. Please login again.');
+  }
+
+  const response = await fetch(`${API_BASE_URL}/api/auth/refresh`, {
+    method: 'POST',
+    headers: getHeaders(false),
+    body: JSON.stringify({ refreshToken }),
+  });
+
+  const data = await handleResponse(response);
+  setToken(data.token);
+  setRefreshToken(data.refreshToken);
+  return data;
+}
+
+export async function logout() {
+  const response = await fetch(`${API_BASE_URL}/api/auth/logout`, {
+    method: 'POST',
+    headers: getHeaders(true),
+  });
+
+  return handleResponse(response);
+}
+
 // Protected API calls - require JWT token
 export async function getUserProfile() {
   const response = await fetch(`${API_BASE_URL}/api/user/profile`, {
@@ -341,28 +369,13 @@ export async function getCart() {
   }
 }
 
-export async function updateCartItem(cartItemId, quantity) {
+// Applies several add/set/remove operations in one request; resolves to { message, cartItems }
+export async function updateCart(operations) {
   try {
-    const response = await fetch(`${API_BASE_URL}/api/buyer/cart/${cartItemId}`, {
-      method: 'PUT',
-      headers: getHeaders(true),
-      body: JSON.stringify({ quantity }),
-    });
-
-    return handleResponse(response);
-  } catch (error) {
-    if (error.message === 'Failed to fetch' || error.name === 'TypeError') {
-      throw new Error('Unable to connect to server. Please ensure the backend is running on http://localhost:8080');
-    }
-    throw error;
-  }
-}
-
-export async function removeFromCart(cartItemId) {
-  try {
-    const response = await fetch(`${API_BASE_URL}/api/buyer/cart/${cartItemId}`, {
-      method: 'DELETE',
+    const response = await fetch(`${API_BASE_URL}/api/buyer/cart`, {
+      method: 'PATCH',
       headers: getHeaders(true),
+      body: JSON.stringify({ operations }),
     });
 
     return handleResponse(response);
@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react';
-import { getBuyerDashboard, getApprovedProducts, getProduct, addToCart, getCart, updateCartItem, removeFromCart, checkout } from '../api';
+import { getBuyerDashboard, getApprovedProducts, getProduct, addToCart, getCart, updateCart, checkout } from '../api';
 import { getUsername, getRole, setUsername } from '../utils/tokenUtils';
 import Profile from './Profile';
 import './Dashboard.css';
@@ -79,8 +79,8 @@ function BuyerDashboard({ onLogout }) {
 
   async function handleUpdateQuantity(cartItemId, quantity) {
     try {
-      await updateCartItem(cartItemId, quantity);
-      await loadCart();
+      const data = await updateCart([{ op: 'set', cartItemId, quantity }]);
+      setCartItems(data.cartItems);
     } catch (err) {
       alert('Error updating cart: ' + err.message);
     }
@@ -88,8 +88,8 @@ function BuyerDashboard({ onLogout }) {
 
   async function handleRemoveFromCart(cartItemId) {
     try {
-      await removeFromCart(cartItemId);
-      await loadCart();
+      const data = await updateCart([{ op: 'remove', cartItemId }]);
+      setCartItems(data.cartItems);
     } catch (err) {
       alert('Error removing from cart: ' + err.message);
     }
@@ -8,8 +8,17 @@ export function setToken(token) {
   sessionStorage.setItem('token', token);
 }
 
+export function getRefreshToken() {
+  return sessionStorage.getItem('refreshToken');
+}
+
+export function setRefreshToken(refreshToken) {
+  sessionStorage.setItem('refreshToken', refreshToken);
+}
+
 export function removeToken() {
   sessionStorage.removeItem('token');
+  sessionStorage.removeItem('refreshToken');
   sessionStorage.removeItem('username');
   sessionStorage.removeItem('role');
 }